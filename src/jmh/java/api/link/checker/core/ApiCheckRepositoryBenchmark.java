@@ -0,0 +1,96 @@
+package api.link.checker.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the merge on context refresh, the check update path and queries of {@link ApiCheckRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ApiCheckRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"journal", "mapped"})
+    public String storageType;
+
+    private Path directory;
+    private ApiCheckRepository repository;
+    private Map<String, List<ApiInfo>> groupedApis;
+    private int revision;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-checker-jmh");
+        repository = SyntheticApis.repository(directory, storageType);
+        groupedApis = SyntheticApis.groupedApis(size);
+        revision = 0;
+        repository.initializeApis(groupedApis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        SyntheticApis.deleteRecursively(directory);
+    }
+
+    /**
+     * Merges a scan that differs from the current APIs; two revisions alternate so every call changes something.
+     */
+    @Benchmark
+    public void initializeApis() {
+        revision ^= 1;
+        repository.initializeApis(SyntheticApis.groupedApis(size, revision));
+    }
+
+    /**
+     * Merges a scan equal to the current APIs, which only compares them.
+     */
+    @Benchmark
+    public void initializeApisUnchanged() {
+        repository.initializeApis(SyntheticApis.groupedApis(size, revision));
+    }
+
+    @Benchmark
+    public void updateCheckStatus() {
+        int i = ThreadLocalRandom.current().nextInt(size);
+        repository.updateCheckStatus(SyntheticApis.httpMethod(i), SyntheticApis.path(i), "bench", (i & 1) == 0);
+    }
+
+    @Benchmark
+    public ApiQueryResult query() {
+        int i = ThreadLocalRandom.current().nextInt(size);
+        return repository.query(new ApiQuery(null, SyntheticApis.httpMethod(i), null, null, "resource" + i, null, 50));
+    }
+
+    @Benchmark
+    public ApiInfo findApi() {
+        int i = ThreadLocalRandom.current().nextInt(size);
+        return repository.findApi(SyntheticApis.httpMethod(i), SyntheticApis.path(i));
+    }
+}
@@ -0,0 +1,80 @@
+package api.link.checker.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks merging freshly scanned APIs into a repository that already holds check states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ApiScannerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private Path directory;
+    private ApiCheckRepository repository;
+    private ApiScanner apiScanner;
+    private int revision;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-checker-jmh");
+        repository = SyntheticApis.repository(directory);
+        repository.initializeApis(SyntheticApis.groupedApis(size));
+        revision = 0;
+        for (int i = 0; i < size; i += 2) {
+            repository.updateCheckStatus(SyntheticApis.httpMethod(i), SyntheticApis.path(i), "bench", true);
+        }
+
+        SwaggerService swaggerService = new SwaggerService(new StandardEnvironment(), "", "/v3/api-docs", "", 1, 2000, 10000, 0, SyntheticApis.noMetrics());
+        ApiCheckerStartup startup = new ApiCheckerStartup(false, repository, event -> {
+        });
+        apiScanner = new ApiScanner(repository, swaggerService, startup, SyntheticApis.noMetrics());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        SyntheticApis.deleteRecursively(directory);
+    }
+
+    /**
+     * Merges a changed scan; two revisions alternate so every call changes descriptions and paths.
+     */
+    @Benchmark
+    public void updateRepositoryWithScannedApis() {
+        revision ^= 1;
+        apiScanner.updateRepositoryWithScannedApis(SyntheticApis.groupedApis(size, revision));
+    }
+
+    /**
+     * Merges a scan equal to the repository, the fast path of a refresh that changed nothing.
+     */
+    @Benchmark
+    public void updateRepositoryWithUnchangedApis() {
+        apiScanner.updateRepositoryWithScannedApis(SyntheticApis.groupedApis(size, revision));
+    }
+}
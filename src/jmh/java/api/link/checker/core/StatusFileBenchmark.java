@@ -0,0 +1,68 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing and reading the JSON status file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StatusFileBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private Path directory;
+    private ObjectMapper objectMapper;
+    private CheckStateJournal journal;
+    private Map<String, List<ApiInfo>> groupedApis;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("api-checker-jmh");
+        objectMapper = new ObjectMapper();
+        journal = new CheckStateJournal(objectMapper, directory.resolve("api-status.json").toString());
+        groupedApis = SyntheticApis.groupedApis(size);
+        save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        SyntheticApis.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        journal.writeSnapshot(new ApiSnapshot(0, groupedApis, objectMapper));
+    }
+
+    @Benchmark
+    public Map<String, List<ApiInfo>> load() throws IOException {
+        return journal.readSnapshot();
+    }
+}
@@ -0,0 +1,74 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks extracting operations from a local OpenAPI document and matching them to tracked APIs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SwaggerServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private Path specFile;
+    private SwaggerService swaggerService;
+    private OpenApiOperationExtractor operationExtractor;
+    private Map<String, List<ApiInfo>> groupedApis;
+    private List<SwaggerOperation> operations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        specFile = Files.createTempFile("api-docs", ".json");
+        SyntheticApis.writeSpec(specFile, size);
+
+        swaggerService = new SwaggerService(new StandardEnvironment(), "", "/v3/api-docs", "", 1, 2000, 10000, 0, SyntheticApis.noMetrics());
+        operationExtractor = new OpenApiOperationExtractor(new ObjectMapper().getFactory());
+        groupedApis = SyntheticApis.groupedApis(size);
+        operations = extractOperations();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(specFile);
+    }
+
+    @Benchmark
+    public List<SwaggerOperation> extractOperations() throws IOException {
+        try (InputStream in = Files.newInputStream(specFile)) {
+            return operationExtractor.extract(in);
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> resolveLinks() {
+        return swaggerService.resolveLinks(operations, groupedApis);
+    }
+}
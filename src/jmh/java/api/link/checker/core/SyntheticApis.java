@@ -0,0 +1,138 @@
+package api.link.checker.core;
+
+import api.link.checker.metrics.ApiCheckerMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic datasets shared by the benchmarks.
+ */
+final class SyntheticApis {
+    static final int APIS_PER_GROUP = 100;
+    private static final String[] HTTP_METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH"};
+
+    private SyntheticApis() {
+    }
+
+    /**
+     * Builds grouped APIs with {@link #APIS_PER_GROUP} APIs per group.
+     *
+     * @param size Total number of APIs.
+     * @return Map of grouped APIs.
+     */
+    static Map<String, List<ApiInfo>> groupedApis(int size) {
+        return groupedApis(size, 0);
+    }
+
+    /**
+     * Builds grouped APIs as a later scan might find them. Revisions differ in every description,
+     * and every tenth API of an odd revision has another path, so a merge has to add and remove APIs.
+     *
+     * @param size     Total number of APIs.
+     * @param revision Revision of the dataset; revision 0 equals {@link #groupedApis(int)}.
+     * @return Map of grouped APIs.
+     */
+    static Map<String, List<ApiInfo>> groupedApis(int size, int revision) {
+        Map<String, List<ApiInfo>> groupedApis = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String groupName = "Group " + (i / APIS_PER_GROUP);
+            String path = revision % 2 == 1 && i % 10 == 0 ? path(i) + "/v2" : path(i);
+            String description = revision == 0 ? "Synthetic API " + i : "Synthetic API " + i + " r" + revision;
+            groupedApis.computeIfAbsent(groupName, name -> new ArrayList<>())
+                    .add(new ApiInfo(httpMethod(i), path, description, "", false));
+        }
+        return groupedApis;
+    }
+
+    static String httpMethod(int i) {
+        return HTTP_METHODS[i % HTTP_METHODS.length];
+    }
+
+    static String path(int i) {
+        return "/group" + (i / APIS_PER_GROUP) + "/resource" + i + "/{id}";
+    }
+
+    /**
+     * Writes an OpenAPI document with one operation per API, a schema per group and some noise
+     * the extractor has to skip.
+     *
+     * @param file Target file.
+     * @param size Total number of APIs.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeSpec(Path file, int size) throws IOException {
+        try (JsonGenerator generator = new JsonFactory().createGenerator(Files.newOutputStream(file))) {
+            generator.writeStartObject();
+            generator.writeStringField("openapi", "3.0.1");
+            generator.writeObjectFieldStart("paths");
+            for (int i = 0; i < size; i++) {
+                // Variable names differ from the tracked paths on purpose
+                generator.writeObjectFieldStart(path(i).replace("{id}", "{resourceId}"));
+                generator.writeObjectFieldStart(httpMethod(i).toLowerCase());
+                generator.writeArrayFieldStart("tags");
+                generator.writeString("Group " + (i / APIS_PER_GROUP));
+                generator.writeEndArray();
+                generator.writeStringField("operationId", "operation" + i);
+                generator.writeObjectFieldStart("responses");
+                generator.writeObjectFieldStart("200");
+                generator.writeStringField("description", "OK");
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("components");
+            generator.writeObjectFieldStart("schemas");
+            for (int g = 0; g <= size / APIS_PER_GROUP; g++) {
+                generator.writeObjectFieldStart("Schema" + g);
+                generator.writeStringField("type", "object");
+                generator.writeObjectFieldStart("properties");
+                for (int p = 0; p < 10; p++) {
+                    generator.writeObjectFieldStart("property" + p);
+                    generator.writeStringField("type", "string");
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    static ObjectProvider<ApiCheckerMetrics> noMetrics() {
+        return new StaticListableBeanFactory().getBeanProvider(ApiCheckerMetrics.class);
+    }
+
+    static ApiCheckRepository repository(Path directory) {
+        return repository(directory, "journal");
+    }
+
+    static ApiCheckRepository repository(Path directory, String storageType) {
+        return new ApiCheckRepository(directory.resolve("api-status.json").toString(), storageType, false, 1000,
+                Long.MAX_VALUE / 2, Integer.MAX_VALUE, false, event -> {
+        }, noMetrics());
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
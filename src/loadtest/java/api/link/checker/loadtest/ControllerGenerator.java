@@ -0,0 +1,152 @@
+package api.link.checker.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates, compiles and loads @ApiGroup controllers with @TrackApi methods,
+ * and the OpenAPI document describing them.
+ *
+ * Every group is its own class, since the scanner takes the group from the class annotation.
+ * Group {@code g} is mapped to "/load/group{g}" and its API {@code i} to "/resource{i}/{id}".
+ */
+final class ControllerGenerator {
+    static final String PACKAGE = "api.link.checker.loadtest.generated";
+    private static final String[] HTTP_METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH"};
+
+    private final int groups;
+    private final int apisPerGroup;
+
+    ControllerGenerator(int groups, int apisPerGroup) {
+        this.groups = groups;
+        this.apisPerGroup = apisPerGroup;
+    }
+
+    static String groupName(int group) {
+        return "Group " + group;
+    }
+
+    static String httpMethod(int api) {
+        return HTTP_METHODS[api % HTTP_METHODS.length];
+    }
+
+    static String path(int group, int api) {
+        return "/load/group" + group + "/resource" + api + "/{id}";
+    }
+
+    /**
+     * Writes the controller sources, compiles them against the current class path and loads them.
+     *
+     * @param directory Directory for the sources and classes.
+     * @return The controller classes, one per group.
+     * @throws IOException If the sources cannot be written or do not compile.
+     */
+    List<Class<?>> compileControllers(Path directory) throws IOException, ClassNotFoundException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("The load test generates controllers at runtime and needs a JDK, not a JRE");
+        }
+
+        Path sources = directory.resolve("src");
+        Path classes = directory.resolve("classes");
+        Path packageDirectory = sources.resolve(PACKAGE.replace('.', '/'));
+        Files.createDirectories(packageDirectory);
+        Files.createDirectories(classes);
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "-proc:none", "-nowarn",
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", classes.toString()));
+        for (int group = 0; group < groups; group++) {
+            Path source = packageDirectory.resolve(className(group) + ".java");
+            Files.writeString(source, controllerSource(group), StandardCharsets.UTF_8);
+            arguments.add(source.toString());
+        }
+
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        if (compiler.run(null, null, errors, arguments.toArray(String[]::new)) != 0) {
+            throw new IOException("Generated controllers do not compile:\n" + errors.toString(StandardCharsets.UTF_8));
+        }
+
+        ClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, ControllerGenerator.class.getClassLoader());
+        List<Class<?>> controllers = new ArrayList<>(groups);
+        for (int group = 0; group < groups; group++) {
+            controllers.add(loader.loadClass(PACKAGE + "." + className(group)));
+        }
+        return controllers;
+    }
+
+    private static String className(int group) {
+        return "Group" + group + "Controller";
+    }
+
+    private String controllerSource(int group) {
+        StringBuilder source = new StringBuilder(256 + apisPerGroup * 160);
+        source.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import api.link.checker.annotation.ApiGroup;\n")
+                .append("import api.link.checker.annotation.TrackApi;\n")
+                .append("import org.springframework.web.bind.annotation.*;\n\n")
+                .append("@RestController\n")
+                .append("@ApiGroup(\"").append(groupName(group)).append("\")\n")
+                .append("@RequestMapping(\"/load/group").append(group).append("\")\n")
+                .append("public class ").append(className(group)).append(" {\n");
+
+        for (int api = 0; api < apisPerGroup; api++) {
+            String method = httpMethod(api);
+            String mapping = method.charAt(0) + method.substring(1).toLowerCase() + "Mapping";
+            source.append("    @TrackApi(description = \"Synthetic API ").append(group).append('-').append(api).append("\")\n")
+                    .append("    @").append(mapping).append("(\"/resource").append(api).append("/{id}\")\n")
+                    .append("    public String api").append(api).append("(@PathVariable(\"id\") String id) {\n")
+                    .append("        return id;\n")
+                    .append("    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * Builds an OpenAPI document with one operation per generated API, tagged with its group.
+     *
+     * @return The document as UTF-8 JSON.
+     * @throws IOException If the document cannot be written.
+     */
+    byte[] openApiDocument() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("openapi", "3.0.1");
+            generator.writeObjectFieldStart("info");
+            generator.writeStringField("title", "Load test");
+            generator.writeStringField("version", "1");
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("paths");
+            for (int group = 0; group < groups; group++) {
+                for (int api = 0; api < apisPerGroup; api++) {
+                    generator.writeObjectFieldStart(path(group, api));
+                    generator.writeObjectFieldStart(httpMethod(api).toLowerCase());
+                    generator.writeArrayFieldStart("tags");
+                    generator.writeString(groupName(group));
+                    generator.writeEndArray();
+                    generator.writeStringField("operationId", "api" + group + "_" + api);
+                    generator.writeEndObject();
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,60 @@
+package api.link.checker.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Request latencies of one endpoint, recorded by a single worker without boxing.
+ */
+final class Latencies {
+    private long[] nanos = new long[1024];
+    private int size;
+    private int errors;
+
+    void record(long latencyNanos, boolean success) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * Merges the latencies of all workers into one sorted instance.
+     */
+    static Latencies merge(List<Latencies> parts) {
+        Latencies merged = new Latencies();
+        merged.nanos = new long[Math.max(1, parts.stream().mapToInt(Latencies::size).sum())];
+        for (Latencies part : parts) {
+            System.arraycopy(part.nanos, 0, merged.nanos, merged.size, part.size);
+            merged.size += part.size;
+            merged.errors += part.errors;
+        }
+        Arrays.sort(merged.nanos, 0, merged.size);
+        return merged;
+    }
+
+    /**
+     * Returns a percentile of a merged instance.
+     *
+     * @param percentile Percentile between 0 and 100.
+     * @return The latency in nanoseconds, or 0 without requests.
+     */
+    long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return nanos[Math.max(0, Math.min(index, size - 1))];
+    }
+}
@@ -0,0 +1,428 @@
+package api.link.checker.loadtest;
+
+import api.link.checker.core.ApiCheckRepository;
+import api.link.checker.core.ApiInfo;
+import api.link.checker.metrics.ApiCheckerMetrics;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline load test of the library.
+ *
+ * Boots {@link LoadTestApplication} on a random port with generated @ApiGroup controllers and a stub
+ * OpenAPI document, then drives concurrent traffic at "/check", "/" and "/swagger-links" and reports
+ * throughput, latency percentiles and the allocation rate of the application threads.
+ *
+ * Every worker checks and unchecks only its own share of the APIs, so the last acknowledged change
+ * of every API is known. After the run the served state, and after shutdown the persisted state
+ * reloaded by a fresh repository, are compared against it; any difference is a lost update.
+ * Exceptions thrown by request handlers or background threads are counted by class.
+ * The process exits with status 1 if anything was lost or failed.
+ *
+ * Settings are read from system properties, for example
+ * {@code ./gradlew loadTest -Ploadtest.groups=50 -Ploadtest.concurrency=32}:
+ * loadtest.groups, loadtest.apis-per-group, loadtest.concurrency, loadtest.duration-seconds,
+ * loadtest.warmup-seconds, loadtest.mix (weights, e.g. "check:8,list:1,swagger-links:1") and loadtest.storage-type.
+ */
+public final class LoadTest {
+    private static final String[] ENDPOINTS = {"check", "list", "swagger-links"};
+    private static final int CHECK = 0;
+    private static final int LIST = 1;
+    private static final int SWAGGER_LINKS = 2;
+
+    private final int groups = Integer.getInteger("loadtest.groups", 20);
+    private final int apisPerGroup = Integer.getInteger("loadtest.apis-per-group", 50);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 3);
+    private final String storageType = System.getProperty("loadtest.storage-type", "journal");
+    private final int[] weights = parseMix(System.getProperty("loadtest.mix", "check:8,list:1,swagger-links:1"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerErrorRecorder errorRecorder = new ServerErrorRecorder();
+    private final AtomicLong stderrLines = new AtomicLong();
+    private final Set<Long> loadThreadIds = ConcurrentHashMap.newKeySet();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadTest().run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        Thread.setDefaultUncaughtExceptionHandler(errorRecorder);
+        System.setErr(new PrintStream(new LineCountingStream(System.err, stderrLines), true, StandardCharsets.UTF_8));
+
+        Path directory = Files.createTempDirectory("api-checker-loadtest");
+        String filePath = directory.resolve("api-status.json").toString();
+        int totalApis = groups * apisPerGroup;
+
+        System.out.printf("Generating %d controllers with %d APIs each%n", groups, apisPerGroup);
+        ControllerGenerator generator = new ControllerGenerator(groups, apisPerGroup);
+        List<Class<?>> controllers = generator.compileControllers(directory.resolve("generated"));
+        byte[] document = generator.openApiDocument();
+
+        ConfigurableApplicationContext context = start(filePath, controllers, document);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/v1/api/link/checker";
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Map<String, ApiInfo> served = fetchApis(client, baseUrl);
+        if (served.size() != totalApis) {
+            System.out.printf("FAILED: expected %d scanned APIs, found %d%n", totalApis, served.size());
+            context.close();
+            return false;
+        }
+
+        System.out.printf("Running %d workers for %ds after %ds warm-up (%s storage)%n",
+                concurrency, durationSeconds, warmupSeconds, storageType);
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + durationSeconds * 1_000_000_000L;
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(i, client, baseUrl, warmupEnd, end);
+            futures.add(pool.submit(() -> {
+                worker.run();
+                return worker;
+            }));
+        }
+
+        sleepUntil(warmupEnd);
+        Map<Long, Long> allocationStart = allocatedBytes();
+        long stderrStart = stderrLines.get();
+
+        List<Worker> workers = new ArrayList<>();
+        for (Future<Worker> future : futures) {
+            workers.add(future.get());
+        }
+        Map<Long, Long> allocationEnd = allocatedBytes();
+        pool.shutdown();
+
+        boolean passed = report(workers, allocationStart, allocationEnd);
+
+        // The state served at the end must hold the last acknowledged change of every API
+        Map<String, Expected> expected = new HashMap<>();
+        Set<String> unknown = new HashSet<>();
+        workers.forEach(worker -> {
+            expected.putAll(worker.expected);
+            unknown.addAll(worker.unknown);
+        });
+        unknown.forEach(expected::remove);
+
+        served = fetchApis(client, baseUrl);
+        int lostServed = countLost(expected, served::get);
+        boolean complete = served.size() == totalApis;
+
+        context.close(); // Folds the journal into the snapshot
+
+        // A fresh repository must load the same state from the files
+        ApiCheckRepository reloaded = new ApiCheckRepository(filePath, storageType, false, 1000,
+                60_000, 1000, false, event -> {
+        }, new StaticListableBeanFactory().getBeanProvider(ApiCheckerMetrics.class));
+        reloaded.initializeApis(allApis());
+        int lostPersisted = countLost(expected, key -> {
+            String[] parts = key.split("_", 2);
+            return reloaded.findApi(parts[0], parts[1]);
+        });
+        reloaded.close();
+
+        System.out.println();
+        System.out.printf("Consistency: %d APIs changed, %d with unknown outcome (failed requests)%n",
+                expected.size(), unknown.size());
+        System.out.printf("  served state:    %d APIs, %d lost updates%n", served.size(), lostServed);
+        System.out.printf("  persisted state: %d lost updates%n", lostPersisted);
+        System.out.printf("Server exceptions: %s%n", errorRecorder.counts().isEmpty() ? "none" : errorRecorder.counts());
+        System.out.printf("Lines written to stderr during the run: %d%n", stderrLines.get() - stderrStart);
+
+        passed &= complete && lostServed == 0 && lostPersisted == 0 && errorRecorder.counts().isEmpty();
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    private ConfigurableApplicationContext start(String filePath, List<Class<?>> controllers, byte[] document) {
+        SpringApplication application = new SpringApplication(LoadTestApplication.class);
+        application.setBannerMode(Banner.Mode.OFF);
+        application.setDefaultProperties(Map.of(
+                "server.port", "0",
+                "api.checker.storage.filepath", filePath,
+                "api.checker.storage.type", storageType,
+                "logging.level.root", "WARN"));
+        application.addInitializers(context -> {
+            GenericApplicationContext applicationContext = (GenericApplicationContext) context;
+            applicationContext.registerBean(StubOpenApiController.class, () -> new StubOpenApiController(document));
+            applicationContext.registerBean(ServerErrorRecorder.class, () -> errorRecorder);
+            for (Class<?> controller : controllers) {
+                applicationContext.registerBean(controller);
+            }
+        });
+        return application.run();
+    }
+
+    private Map<String, ApiInfo> fetchApis(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + baseUrl + " answered " + response.statusCode());
+        }
+
+        Map<String, List<ApiInfo>> groupedApis = objectMapper.readValue(response.body(), new TypeReference<>() {
+        });
+        Map<String, ApiInfo> apis = new HashMap<>();
+        groupedApis.values().forEach(apiList -> apiList.forEach(api -> apis.put(api.getHttpMethod() + "_" + api.getPath(), api)));
+        return apis;
+    }
+
+    private Map<String, List<ApiInfo>> allApis() {
+        Map<String, List<ApiInfo>> groupedApis = new LinkedHashMap<>();
+        for (int group = 0; group < groups; group++) {
+            List<ApiInfo> apiList = new ArrayList<>(apisPerGroup);
+            for (int api = 0; api < apisPerGroup; api++) {
+                apiList.add(new ApiInfo(ControllerGenerator.httpMethod(api), ControllerGenerator.path(group, api),
+                        "Synthetic API " + group + "-" + api, "", false));
+            }
+            groupedApis.put(ControllerGenerator.groupName(group), apiList);
+        }
+        return groupedApis;
+    }
+
+    private static int countLost(Map<String, Expected> expected, java.util.function.Function<String, ApiInfo> actual) {
+        int lost = 0;
+        for (Map.Entry<String, Expected> entry : expected.entrySet()) {
+            ApiInfo api = actual.apply(entry.getKey());
+            if (api == null || api.isChecked() != entry.getValue().checked()
+                    || !entry.getValue().nickname().equals(api.getNickname())) {
+                lost++;
+            }
+        }
+        return lost;
+    }
+
+    private boolean report(List<Worker> workers, Map<Long, Long> allocationStart, Map<Long, Long> allocationEnd) {
+        System.out.println();
+        System.out.printf("%-14s %10s %8s %12s %10s %10s %10s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+
+        boolean passed = true;
+        long totalRequests = 0;
+        for (int endpoint = 0; endpoint < ENDPOINTS.length; endpoint++) {
+            List<Latencies> parts = new ArrayList<>();
+            for (Worker worker : workers) {
+                parts.add(worker.latencies[endpoint]);
+            }
+            Latencies merged = Latencies.merge(parts);
+            totalRequests += merged.size();
+            passed &= merged.errors() == 0;
+
+            System.out.printf("%-14s %10d %8d %12.1f %10.2f %10.2f %10.2f%n", ENDPOINTS[endpoint],
+                    merged.size(), merged.errors(), merged.size() / (double) durationSeconds,
+                    merged.percentile(50) / 1e6, merged.percentile(99) / 1e6, merged.percentile(100) / 1e6);
+        }
+        System.out.printf("%-14s %10d %8s %12.1f%n", "total", totalRequests, "", totalRequests / (double) durationSeconds);
+
+        // Threads of the load generator are excluded, the rest is the application under test
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocationEnd.entrySet()) {
+            if (!loadThreadIds.contains(entry.getKey())) {
+                allocated += entry.getValue() - allocationStart.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+        System.out.printf("Allocation rate of application threads: %.1f MB/s (%.1f KB per request)%n",
+                allocated / 1e6 / durationSeconds, totalRequests > 0 ? allocated / 1e3 / totalRequests : 0);
+        return passed;
+    }
+
+    /**
+     * Returns the bytes allocated so far by every live thread.
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(Math.max(1, remaining / 1_000_000));
+        }
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[ENDPOINTS.length];
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            for (int i = 0; i < ENDPOINTS.length; i++) {
+                if (ENDPOINTS[i].equals(entry[0])) {
+                    weights[i] = Integer.parseInt(entry[1]);
+                }
+            }
+        }
+        return weights;
+    }
+
+    private record Expected(boolean checked, String nickname) {
+    }
+
+    /**
+     * Sends requests until the end of the run. Worker {@code n} only changes the APIs whose index
+     * modulo the number of workers is {@code n}, one request at a time.
+     */
+    private final class Worker {
+        private final int id;
+        private final HttpClient client;
+        private final String baseUrl;
+        private final long warmupEnd;
+        private final long end;
+        private final Latencies[] latencies = {new Latencies(), new Latencies(), new Latencies()};
+        private final Map<String, Expected> expected = new HashMap<>();
+        private final Set<String> unknown = new HashSet<>();
+        private int sequence;
+
+        private Worker(int id, HttpClient client, String baseUrl, long warmupEnd, long end) {
+            this.id = id;
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        private void run() {
+            loadThreadIds.add(Thread.currentThread().getId());
+            int totalWeight = weights[CHECK] + weights[LIST] + weights[SWAGGER_LINKS];
+            int ownApis = (groups * apisPerGroup - id + concurrency - 1) / concurrency;
+
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+                int endpoint = pick < weights[CHECK] ? CHECK : pick < weights[CHECK] + weights[LIST] ? LIST : SWAGGER_LINKS;
+                if (endpoint == CHECK && ownApis <= 0) {
+                    endpoint = LIST;
+                }
+
+                boolean success = switch (endpoint) {
+                    case CHECK -> check(id + concurrency * ThreadLocalRandom.current().nextInt(ownApis));
+                    case LIST -> send(baseUrl);
+                    default -> send(baseUrl + "/swagger-links");
+                };
+
+                if (now >= warmupEnd) {
+                    latencies[endpoint].record(System.nanoTime() - now, success);
+                }
+            }
+        }
+
+        private boolean check(int index) {
+            int group = index / apisPerGroup;
+            int api = index % apisPerGroup;
+            String httpMethod = ControllerGenerator.httpMethod(api);
+            String path = ControllerGenerator.path(group, api);
+            boolean checked = ThreadLocalRandom.current().nextBoolean();
+            String nickname = "worker" + id + "-" + sequence++;
+
+            String key = httpMethod + "_" + path;
+            boolean success = send(baseUrl + "/check?httpMethod=" + httpMethod
+                    + "&path=" + URLEncoder.encode(path, StandardCharsets.UTF_8)
+                    + "&nickname=" + nickname + "&checked=" + checked);
+            if (success) {
+                expected.put(key, new Expected(checked, checked ? nickname : ""));
+            } else {
+                unknown.add(key); // The change may or may not have been applied
+            }
+            return success;
+        }
+
+        private boolean send(String url) {
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                return response.statusCode() / 100 == 2;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Forwards to another stream and counts the lines written.
+     */
+    private static final class LineCountingStream extends OutputStream {
+        private final OutputStream delegate;
+        private final AtomicLong lines;
+
+        private LineCountingStream(OutputStream delegate, AtomicLong lines) {
+            this.delegate = delegate;
+            this.lines = lines;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (b == '\n') {
+                lines.incrementAndGet();
+            }
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lines.incrementAndGet();
+                }
+            }
+            delegate.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
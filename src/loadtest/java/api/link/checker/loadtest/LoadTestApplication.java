@@ -0,0 +1,15 @@
+package api.link.checker.loadtest;
+
+import api.link.checker.annotation.EnableApiLinkChecker;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+
+/**
+ * Embedded application under load. It has no component scan: the generated controllers,
+ * the stub OpenAPI document and the error recorder are registered by {@link LoadTest}.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableApiLinkChecker
+public class LoadTestApplication {
+}
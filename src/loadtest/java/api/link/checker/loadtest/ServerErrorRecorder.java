@@ -0,0 +1,44 @@
+package api.link.checker.loadtest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the exceptions thrown by request handlers and by background threads, by exception class,
+ * so that a {@link java.util.ConcurrentModificationException} in the library shows up in the report.
+ */
+@RestControllerAdvice
+public class ServerErrorRecorder implements Thread.UncaughtExceptionHandler {
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handle(Exception e) {
+        record(e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.toString());
+    }
+
+    @Override
+    public void uncaughtException(Thread thread, Throwable e) {
+        record(e);
+        e.printStackTrace();
+    }
+
+    void record(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        errors.computeIfAbsent(cause.getClass().getName(), name -> new LongAdder()).increment();
+    }
+
+    Map<String, Long> counts() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,25 @@
+package api.link.checker.loadtest;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the generated OpenAPI document where the library expects springdoc's, so no springdoc is needed.
+ */
+@RestController
+public class StubOpenApiController {
+    private final byte[] document;
+
+    public StubOpenApiController(byte[] document) {
+        this.document = document;
+    }
+
+    @GetMapping("/v3/api-docs")
+    public ResponseEntity<byte[]> apiDocs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(document);
+    }
+}
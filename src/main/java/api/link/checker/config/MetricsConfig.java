@@ -0,0 +1,24 @@
+package api.link.checker.config;
+
+import api.link.checker.metrics.ApiCheckerMetrics;
+import api.link.checker.metrics.MicrometerApiCheckerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes library metrics through Micrometer when it is on the classpath.
+ * Without Micrometer this configuration is skipped and components fall back to {@link ApiCheckerMetrics#NOOP}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class MetricsConfig {
+
+    @Bean
+    public ApiCheckerMetrics apiCheckerMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new MicrometerApiCheckerMetrics(registry) : ApiCheckerMetrics.NOOP;
+    }
+}
@@ -0,0 +1,109 @@
+package api.link.checker.controller;
+
+import api.link.checker.core.ApiCheckChangedEvent;
+import api.link.checker.core.ApiCheckDelta;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Pushes repository changes to connected browsers as Server-Sent Events.
+ *
+ * A check change is sent as a "delta" event carrying a single {@link ApiCheckDelta};
+ * a structural change is sent as a "reset" event, after which clients reload all APIs.
+ * Events are sent from a single dispatcher thread, so request threads never wait on slow clients.
+ */
+@Component
+public class ApiCheckEventStream {
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 30;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+
+    public ApiCheckEventStream() {
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-checker-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Heartbeats detect closed connections that would otherwise stay registered
+        dispatcher.scheduleAtFixedRate(() -> broadcast(() -> SseEmitter.event().comment("heartbeat")),
+                HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers a new event stream.
+     *
+     * @return The emitter of the new stream.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    /**
+     * Forwards repository changes to all connected streams.
+     *
+     * @param event The repository change.
+     */
+    @EventListener
+    public void onApiCheckChanged(ApiCheckChangedEvent event) {
+        dispatcher.execute(() -> {
+            if (event.structural()) {
+                broadcast(() -> SseEmitter.event()
+                        .id(String.valueOf(event.version()))
+                        .name("reset")
+                        .data(Map.of("version", event.version()), MediaType.APPLICATION_JSON));
+                return;
+            }
+
+            for (ApiCheckDelta delta : event.deltas()) {
+                broadcast(() -> SseEmitter.event()
+                        .id(String.valueOf(delta.version()))
+                        .name("delta")
+                        .data(delta, MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    /**
+     * Sends an event to every stream. A new builder is created per stream,
+     * because a builder cannot be sent twice.
+     *
+     * @param eventSupplier Creates the event to send.
+     */
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> eventSupplier) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(eventSupplier.get());
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    /**
+     * Stops the dispatcher and closes all streams.
+     */
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+}
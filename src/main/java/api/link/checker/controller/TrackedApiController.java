@@ -1,32 +1,101 @@
 package api.link.checker.controller;
 
+import api.link.checker.core.ApiChanges;
+import api.link.checker.core.ApiCheckDelta;
+import api.link.checker.core.ApiCheckHistory;
 import api.link.checker.core.ApiCheckRepository;
-import api.link.checker.core.ApiInfo;
+import api.link.checker.core.ApiCheckerStartup;
+import api.link.checker.core.ApiHistoryResult;
+import api.link.checker.core.ApiQuery;
+import api.link.checker.core.ApiQueryResult;
+import api.link.checker.core.ApiSnapshot;
+import api.link.checker.core.CheckUpdate;
 import api.link.checker.core.SwaggerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/v1/api/link/checker")
 public class TrackedApiController {
     private final ApiCheckRepository apiCheckRepository;
     private final SwaggerService swaggerService;
+    private final ApiCheckEventStream apiCheckEventStream;
+    private final ApiCheckerStartup startup;
+    private final ApiCheckHistory apiCheckHistory;
 
     public TrackedApiController(ApiCheckRepository apiCheckRepository,
-                                SwaggerService swaggerService) {
+                                SwaggerService swaggerService,
+                                ApiCheckEventStream apiCheckEventStream,
+                                ApiCheckerStartup startup,
+                                ApiCheckHistory apiCheckHistory) {
         this.apiCheckRepository = apiCheckRepository;
         this.swaggerService = swaggerService;
+        this.apiCheckEventStream = apiCheckEventStream;
+        this.startup = startup;
+        this.apiCheckHistory = apiCheckHistory;
     }
 
     @GetMapping
-    public Map<String, List<ApiInfo>> getAllGroupedApis() {
-        return apiCheckRepository.getAllGroupedApis();
+    public ResponseEntity<byte[]> getAllGroupedApis(WebRequest webRequest) throws IOException {
+        requireReady();
+        ApiSnapshot snapshot = apiCheckRepository.getSnapshot();
+        String etag = versionTag(snapshot.getVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.toJson());
+    }
+
+    @GetMapping(params = "sinceVersion")
+    public ResponseEntity<ApiChanges> getChangesSince(@RequestParam("sinceVersion") long sinceVersion,
+                                                      WebRequest webRequest) {
+        requireReady();
+        ApiChanges changes = apiCheckRepository.getChangesSince(sinceVersion);
+        String etag = versionTag(changes.version());
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(changes);
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<ApiQueryResult> query(
+            @RequestParam(value = "group", required = false) String group,
+            @RequestParam(value = "httpMethod", required = false) String httpMethod,
+            @RequestParam(value = "checked", required = false) Boolean checked,
+            @RequestParam(value = "nickname", required = false) String nickname,
+            @RequestParam(value = "q", required = false) String text,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        requireReady();
+        try {
+            return ResponseEntity.ok(apiCheckRepository.query(
+                    new ApiQuery(group, httpMethod, checked, nickname, text, cursor, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Stale or malformed cursor, start over
+        }
     }
 
     @GetMapping("/check")
@@ -35,11 +104,75 @@ public class TrackedApiController {
             @RequestParam("path") String path,
             @RequestParam("nickname") String nickname,
             @RequestParam("checked") boolean checked) {
+        requireReady();
         apiCheckRepository.updateCheckStatus(httpMethod, path, nickname, checked);
     }
 
+    @PostMapping("/check/batch")
+    public ResponseEntity<List<ApiCheckDelta>> updateCheckStatuses(@RequestBody List<CheckUpdate> updates) {
+        requireReady();
+        try {
+            return ResponseEntity.ok(apiCheckRepository.updateCheckStatuses(updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // Incomplete update, nothing was applied
+        }
+    }
+
+    @GetMapping(value = "/history", params = "path")
+    public ApiHistoryResult getApiHistory(
+            @RequestParam("httpMethod") String httpMethod,
+            @RequestParam("path") String path,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return apiCheckHistory.findByApi(httpMethod, path,
+                from != null ? from : 0, to != null ? to : Long.MAX_VALUE, limit);
+    }
+
+    @GetMapping(value = "/history", params = "nickname")
+    public ApiHistoryResult getNicknameHistory(
+            @RequestParam("nickname") String nickname,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return apiCheckHistory.findByNickname(nickname,
+                from != null ? from : 0, to != null ? to : Long.MAX_VALUE, limit);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents() {
+        return apiCheckEventStream.subscribe();
+    }
+
     @GetMapping("/swagger-links")
-    public Map<String, String> getSwaggerLinks() throws IOException {
-        return swaggerService.fetchSwaggerLinks(apiCheckRepository.getAllGroupedApis());
+    public CompletableFuture<Map<String, String>> getSwaggerLinks() {
+        requireReady();
+        return swaggerService.fetchSwaggerLinksAsync(apiCheckRepository.getAllGroupedApis());
+    }
+
+    @ExceptionHandler(WarmingUpException.class)
+    public ResponseEntity<Map<String, String>> warmingUp() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("status", "warming up"));
+    }
+
+    private void requireReady() {
+        if (!startup.isReady()) {
+            throw new WarmingUpException();
+        }
+    }
+
+    private static String versionTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Thrown by endpoints called while the checker is still loading, answered with 503.
+     */
+    static class WarmingUpException extends RuntimeException {
+        WarmingUpException() {
+            super("API checker is warming up", null, false, false);
+        }
     }
-}
\ No newline at end of file
+}
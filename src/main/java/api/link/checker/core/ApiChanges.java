@@ -0,0 +1,15 @@
+package api.link.checker.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes of the repository since a client-supplied version.
+ *
+ * @param version Repository version the changes lead up to.
+ * @param full    True if the changes could not be computed incrementally and {@code groups} holds everything.
+ * @param groups  All grouped APIs when {@code full} is true, otherwise null.
+ * @param changes Check state changes since the requested version when {@code full} is false.
+ */
+public record ApiChanges(long version, boolean full, Map<String, List<ApiInfo>> groups, List<ApiCheckDelta> changes) {
+}
@@ -0,0 +1,15 @@
+package api.link.checker.core;
+
+import java.util.List;
+
+/**
+ * Published by {@link ApiCheckRepository} whenever its content changes.
+ *
+ * @param version    Repository version after the change.
+ * @param structural True if the set of groups or APIs changed, in which case clients should reload everything.
+ * @param deltas     Check state changes; empty for structural changes.
+ * @param records    The check records behind the deltas, with who made each change and when; empty for
+ *                   changes read from other instances or from a snapshot, which this instance did not make.
+ */
+public record ApiCheckChangedEvent(long version, boolean structural, List<ApiCheckDelta> deltas, List<CheckRecord> records) {
+}
@@ -0,0 +1,14 @@
+package api.link.checker.core;
+
+/**
+ * The new check state of a single API after a change.
+ *
+ * @param key        Index key of the API (see {@link ApiKeys}).
+ * @param httpMethod HTTP method of the API.
+ * @param path       Path of the API.
+ * @param checked    New check status.
+ * @param nickname   Nickname of the user who checked the API, or an empty string.
+ * @param version    Repository version that contains this change.
+ */
+public record ApiCheckDelta(String key, String httpMethod, String path, boolean checked, String nickname, long version) {
+}
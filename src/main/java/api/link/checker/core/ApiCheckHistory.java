@@ -0,0 +1,465 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Audit history of check state changes.
+ *
+ * Every change made through this instance and published by {@link ApiCheckRepository} is kept in a ring
+ * buffer of recent changes and appended to rolling segment files in "{filePath}.history". Changes read
+ * from other instances are not recorded, since the instance that made them records them. With shared storage
+ * every instance writes to its own subdirectory named by {@code api.checker.history.instance-id},
+ * the host name by default, so instances never append to or delete each other's segments. A segment is closed once it reaches
+ * {@code api.checker.history.segment-size-bytes}, and the oldest segments are deleted beyond
+ * {@code api.checker.history.max-segments}, so both memory and disk usage are bounded.
+ *
+ * Each segment is indexed in memory by its time range and a fixed-size Bloom filter of the API keys
+ * and nicknames it contains. A query only reads the segments whose index may match, and is answered
+ * from the ring buffer alone when the buffer reaches back far enough. Segment files are written and
+ * read on a single thread, so a query sees every change published before it.
+ */
+@Component
+public class ApiCheckHistory {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final int BLOOM_BITS = 1 << 16;
+    private static final int BLOOM_HASHES = 3;
+    private static final int MAX_QUERY_LIMIT = 1000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+    private final boolean enabled;
+    private final long segmentSizeBytes;
+    private final int maxSegments;
+    private final int bufferSize;
+    private final ArrayDeque<CheckRecord> recent = new ArrayDeque<>();
+    private final ExecutorService writer;
+
+    // Accessed on the writer thread only
+    private final List<Segment> segments = new ArrayList<>(); // Oldest first
+    private OutputStream activeStream;
+
+    /**
+     * Constructor resolves the history directory and indexes the existing segments in the background.
+     *
+     * @param filePath         Configured storage file path; segments are kept in "{filePath}.history".
+     * @param storageType      Configured storage type; "shared" keeps the segments of every instance apart.
+     * @param instanceId       Name of this instance's directory with shared storage; empty for the host name.
+     * @param enabled          Whether changes are recorded.
+     * @param segmentSizeBytes Size at which a segment is closed and a new one started.
+     * @param maxSegments      Number of segments kept; older ones are deleted.
+     * @param bufferSize       Number of recent changes kept in memory.
+     */
+    public ApiCheckHistory(@Value("${api.checker.storage.filepath:api-status.json}") String filePath,
+                           @Value("${api.checker.storage.type:journal}") String storageType,
+                           @Value("${api.checker.history.instance-id:}") String instanceId,
+                           @Value("${api.checker.history.enabled:true}") boolean enabled,
+                           @Value("${api.checker.history.segment-size-bytes:1048576}") long segmentSizeBytes,
+                           @Value("${api.checker.history.max-segments:8}") int maxSegments,
+                           @Value("${api.checker.history.buffer-size:1000}") int bufferSize) {
+        Path historyPath = Path.of(filePath + ".history").toAbsolutePath();
+        this.directory = "shared".equalsIgnoreCase(storageType)
+                ? historyPath.resolve(instanceDirectory(instanceId))
+                : historyPath;
+        this.enabled = enabled;
+        this.segmentSizeBytes = Math.max(1, segmentSizeBytes);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.bufferSize = Math.max(1, bufferSize);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-checker-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (enabled) {
+            writer.execute(this::loadSegments);
+        }
+    }
+
+    /**
+     * Returns the directory name of this instance, falling back to the host name.
+     */
+    private static String instanceDirectory(String instanceId) {
+        String name = instanceId;
+        if (name == null || name.isBlank()) {
+            try {
+                name = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                name = UUID.randomUUID().toString();
+                System.err.println("Failed to resolve the host name, set api.checker.history.instance-id to keep the API check history: "
+                        + e.getMessage());
+            }
+        }
+        return name.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Records the check changes of the repository.
+     * Called while the repository holds its write lock, so the files are written on the writer thread.
+     *
+     * @param event The repository change.
+     */
+    @EventListener
+    public void onApiCheckChanged(ApiCheckChangedEvent event) {
+        if (!enabled || event.records().isEmpty()) {
+            return;
+        }
+
+        synchronized (recent) {
+            for (CheckRecord record : event.records()) {
+                if (recent.size() == bufferSize) {
+                    recent.pollFirst();
+                }
+                recent.addLast(record);
+            }
+        }
+        writer.execute(() -> write(event.records()));
+    }
+
+    /**
+     * Finds the changes of an API in a time range.
+     *
+     * @param httpMethod HTTP method of the API.
+     * @param path       Path of the API.
+     * @param from       Start of the range in epoch milliseconds, inclusive.
+     * @param to         End of the range in epoch milliseconds, inclusive.
+     * @param limit      Maximum number of changes returned.
+     * @return The matching changes, newest first.
+     */
+    public ApiHistoryResult findByApi(String httpMethod, String path, long from, long to, int limit) {
+        String key = ApiKeys.of(httpMethod, path);
+        return query("k:" + key, record -> key.equals(ApiKeys.of(record.httpMethod(), record.path())), from, to, limit);
+    }
+
+    /**
+     * Finds the changes made by a nickname in a time range.
+     *
+     * @param nickname Nickname of the user.
+     * @param from     Start of the range in epoch milliseconds, inclusive.
+     * @param to       End of the range in epoch milliseconds, inclusive.
+     * @param limit    Maximum number of changes returned.
+     * @return The matching changes, newest first.
+     */
+    public ApiHistoryResult findByNickname(String nickname, long from, long to, int limit) {
+        return query("n:" + nickname, record -> nickname.equals(record.nickname()), from, to, limit);
+    }
+
+    private ApiHistoryResult query(String indexKey, Predicate<CheckRecord> filter, long from, long to, int limit) {
+        if (!enabled) {
+            return new ApiHistoryResult(0, List.of());
+        }
+
+        Matches matches = new Matches(filter, from, to, Math.max(1, Math.min(limit, MAX_QUERY_LIMIT)));
+
+        // Every change after the oldest buffered one is still buffered
+        synchronized (recent) {
+            CheckRecord oldest = recent.peekFirst();
+            if (oldest != null && from > oldest.timestamp()) {
+                recent.descendingIterator().forEachRemaining(matches::offer);
+                return matches.result();
+            }
+        }
+
+        Future<ApiHistoryResult> result = writer.submit(() -> readSegments(indexKey, matches));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ApiHistoryResult(0, List.of());
+        } catch (ExecutionException e) {
+            System.err.println("Failed to read API check history: " + e.getCause().getMessage());
+            return new ApiHistoryResult(0, List.of());
+        }
+    }
+
+    /**
+     * Reads the segments that may contain matches, newest first. Runs on the writer thread.
+     */
+    private ApiHistoryResult readSegments(String indexKey, Matches matches) throws IOException {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (!segment.overlaps(matches.from, matches.to) || !segment.mightContain(indexKey)) {
+                continue;
+            }
+
+            List<CheckRecord> records = readRecords(segment.path);
+            for (int j = records.size() - 1; j >= 0; j--) {
+                matches.offer(records.get(j));
+            }
+        }
+        return matches.result();
+    }
+
+    /**
+     * Appends records to the active segment, starting a new one when it is full. Runs on the writer thread.
+     */
+    private void write(List<CheckRecord> records) {
+        try {
+            Segment segment = activeSegment();
+
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(records.size() * 128);
+            for (CheckRecord record : records) {
+                lines.write(objectMapper.writeValueAsBytes(record));
+                lines.write('\n');
+                segment.index(record);
+            }
+            lines.writeTo(activeStream);
+            activeStream.flush();
+
+            segment.size += lines.size();
+            if (segment.size >= segmentSizeBytes) {
+                closeActiveSegment();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write API check history: " + e.getMessage());
+            closeActiveSegment(); // Continue in a new segment rather than after a partial line
+        }
+    }
+
+    private Segment activeSegment() throws IOException {
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || last.closed) {
+            Files.createDirectories(directory);
+            long sequence = last != null ? last.sequence + 1 : 1;
+            last = new Segment(directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX)), sequence);
+            segments.add(last);
+            deleteOldSegments();
+        }
+        if (activeStream == null) {
+            activeStream = Files.newOutputStream(last.path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return last;
+    }
+
+    private void closeActiveSegment() {
+        if (!segments.isEmpty()) {
+            segments.get(segments.size() - 1).closed = true;
+        }
+        if (activeStream == null) {
+            return;
+        }
+        try {
+            activeStream.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close API check history segment: " + e.getMessage());
+        }
+        activeStream = null;
+    }
+
+    private void deleteOldSegments() {
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.remove(0);
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                System.err.println("Failed to delete API check history segment " + oldest.path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Indexes the segments left by previous runs. Runs on the writer thread.
+     * A segment that does not end with a complete line is closed, so no record is appended to a torn one.
+     */
+    private void loadSegments() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Segment> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Iterator<Path> it = files.iterator(); it.hasNext(); ) {
+                Path file = it.next();
+                String name = file.getFileName().toString();
+                if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) continue;
+                try {
+                    long sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    found.add(new Segment(file, sequence));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list API check history " + directory + ": " + e.getMessage());
+            return;
+        }
+        found.sort(Comparator.comparingLong(segment -> segment.sequence));
+
+        for (Segment segment : found) {
+            try {
+                readRecords(segment.path).forEach(segment::index);
+                segment.size = Files.size(segment.path);
+                segment.closed = segment.size >= segmentSizeBytes || !endsWithNewline(segment.path);
+            } catch (IOException e) {
+                System.err.println("Failed to index API check history segment " + segment.path + ": " + e.getMessage());
+                segment.closed = true;
+            }
+        }
+
+        segments.addAll(0, found);
+        deleteOldSegments();
+    }
+
+    /**
+     * Reads the records of a segment in write order, skipping lines that cannot be parsed.
+     */
+    private List<CheckRecord> readRecords(Path path) throws IOException {
+        List<CheckRecord> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    records.add(objectMapper.readValue(line, CheckRecord.class));
+                } catch (IOException ignored) {
+                    // A torn last line after a crash
+                }
+            }
+        }
+        return records;
+    }
+
+    private static boolean endsWithNewline(Path path) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Closes the active segment after the pending writes.
+     */
+    @PreDestroy
+    public void close() {
+        writer.execute(this::closeActiveSegment);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A segment file with its in-memory index.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final long sequence;
+        private final BitSet bloom = new BitSet(BLOOM_BITS);
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+        private long size;
+        private boolean closed;
+
+        private Segment(Path path, long sequence) {
+            this.path = path;
+            this.sequence = sequence;
+        }
+
+        private void index(CheckRecord record) {
+            minTimestamp = Math.min(minTimestamp, record.timestamp());
+            maxTimestamp = Math.max(maxTimestamp, record.timestamp());
+            add("k:" + ApiKeys.of(record.httpMethod(), record.path()));
+            add("n:" + record.nickname());
+        }
+
+        private boolean overlaps(long from, long to) {
+            return minTimestamp <= to && maxTimestamp >= from;
+        }
+
+        private void add(String value) {
+            int hash = value.hashCode();
+            int step = mix(hash);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                bloom.set(Math.floorMod(hash + i * step, BLOOM_BITS));
+            }
+        }
+
+        private boolean mightContain(String value) {
+            int hash = value.hashCode();
+            int step = mix(hash);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                if (!bloom.get(Math.floorMod(hash + i * step, BLOOM_BITS))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int hash) {
+            int h = hash * 0x9E3779B9;
+            return (h ^ (h >>> 16)) | 1;
+        }
+    }
+
+    /**
+     * Counts matching records offered newest first and keeps the first ones up to the limit.
+     */
+    private static final class Matches {
+        private final Predicate<CheckRecord> filter;
+        private final long from;
+        private final long to;
+        private final int limit;
+        private final List<CheckRecord> events = new ArrayList<>();
+        private int total;
+
+        private Matches(Predicate<CheckRecord> filter, long from, long to, int limit) {
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        private void offer(CheckRecord record) {
+            if (record.timestamp() < from || record.timestamp() > to || !filter.test(record)) {
+                return;
+            }
+            total++;
+            if (events.size() < limit) {
+                events.add(record);
+            }
+        }
+
+        private ApiHistoryResult result() {
+            return new ApiHistoryResult(total, List.copyOf(events));
+        }
+    }
+}
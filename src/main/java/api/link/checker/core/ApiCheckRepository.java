@@ -1,75 +1,291 @@
 package api.link.checker.core;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import api.link.checker.metrics.ApiCheckerMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Repository for managing API status and metadata.
  * Handles initialization, updates, and persistence of API data.
+ *
+ * APIs are indexed by their key (HTTP method and normalized path, see {@link ApiKeys}),
+ * and a secondary group index keeps the ordered keys of each group.
+ * Writers take the write lock, readers take the read lock and receive copies.
+ *
+ * Check changes are written to a {@link CheckStateStore} selected by {@code api.checker.storage.type}:
+ * "journal" (default) appends them to a journal that a background compactor periodically folds
+ * into the snapshot file (see {@link CheckStateJournal}), "mapped" overwrites fixed-size records
+ * in a memory-mapped file (see {@link MappedCheckStateStore}), and "shared" appends them to a journal
+ * on a volume shared with other instances, whose changes are applied as they appear
+ * (see {@link SharedCheckStateJournal}).
+ * Stored states of APIs that are not known yet are kept until a scan adds them.
+ *
+ * Every change increments the repository version and publishes an {@link ApiCheckChangedEvent}.
+ * Events are published while the write lock is held, so listeners see them in version order.
+ * Readers are served from an immutable {@link ApiSnapshot} per version, and a bounded change log
+ * answers "what changed since version N" without copying everything.
+ * An {@link ApiSearchIndex} is kept up to date with every change to answer filtered queries.
+ *
+ * The stored state is loaded by the constructor, unless startup is asynchronous; then
+ * {@link ApiCheckerStartup} calls {@link #load()} on a background thread after startup.
  */
 @Repository
 public class ApiCheckRepository {
-    private final Map<String, List<ApiInfo>> groupedApiMap = new HashMap<>();
+    private final Map<String, ApiInfo> apiIndex = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> groupIndex = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object saveMonitor = new Object();
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final String filePath;
+    private final CheckStateStore store;
+    private final int compactionThreshold;
+    private final ScheduledExecutorService compactor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApiCheckerMetrics metrics;
+    private static final int CHANGE_LOG_LIMIT = 10_000;
+    private static final int MAX_QUERY_LIMIT = 1000;
+    private static final String LEGACY_UNKNOWN_METHOD = "UNKNOWN";
+    private static final String RESTORED_GROUP = "#restored"; // Stored states of APIs this instance does not track
+
+    private final NavigableMap<Long, String> changeLog = new TreeMap<>();
+    private final Map<String, CheckRecord> restoredStates = new HashMap<>();
+    private final ApiSearchIndex searchIndex = new ApiSearchIndex();
+    private final AtomicBoolean loaded = new AtomicBoolean();
+    private long version = System.currentTimeMillis() * 1000; // Keeps versions increasing across restarts
+    private long structureVersion;
+    private volatile ApiSnapshot snapshot;
 
     /**
      * Constructor initializes the file path and loads data from the file.
      *
-     * @param filePath File path for saving and loading API data.
+     * @param filePath             File path for saving and loading API data.
+     * @param storageType          Storage backend, "journal", "mapped" or "shared".
+     * @param forceMappedWrites    Whether the mapped backend forces every write to the storage device.
+     * @param sharedPollIntervalMs Longest time before the shared backend notices changes of other instances.
+     * @param compactionIntervalMs Interval between background journal compactions.
+     * @param compactionThreshold  Number of journal records that triggers an early compaction.
+     * @param asyncStartup         Whether loading is left to {@link ApiCheckerStartup} instead of the constructor.
+     * @param eventPublisher       Publisher for change events.
+     * @param metrics              Metrics of the library, if any.
      */
-    public ApiCheckRepository(@Value("${api.checker.storage.filepath:api-status.json}") String filePath) {
-        this.filePath = filePath;
-        loadFromFile(); // Load API data from file at startup.
+    public ApiCheckRepository(@Value("${api.checker.storage.filepath:api-status.json}") String filePath,
+                              @Value("${api.checker.storage.type:journal}") String storageType,
+                              @Value("${api.checker.storage.mapped.force:false}") boolean forceMappedWrites,
+                              @Value("${api.checker.storage.shared.poll-interval-ms:1000}") long sharedPollIntervalMs,
+                              @Value("${api.checker.storage.compaction-interval-ms:30000}") long compactionIntervalMs,
+                              @Value("${api.checker.storage.compaction-threshold:1000}") int compactionThreshold,
+                              @Value("${api.checker.startup.async:false}") boolean asyncStartup,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectProvider<ApiCheckerMetrics> metrics) {
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics.getIfAvailable(() -> ApiCheckerMetrics.NOOP);
+        this.store = createStore(storageType, filePath, forceMappedWrites, sharedPollIntervalMs);
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-checker-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (!asyncStartup) {
+            load(); // Load API data from file at startup.
+        }
+
+        compactor.scheduleWithFixedDelay(this::compactIfPending,
+                compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private CheckStateStore createStore(String storageType, String filePath,
+                                        boolean forceMappedWrites, long sharedPollIntervalMs) {
+        if ("mapped".equalsIgnoreCase(storageType)) {
+            return new MappedCheckStateStore(filePath, forceMappedWrites);
+        }
+        if ("shared".equalsIgnoreCase(storageType)) {
+            return new SharedCheckStateJournal(objectMapper, filePath, sharedPollIntervalMs);
+        }
+        if (!"journal".equalsIgnoreCase(storageType)) {
+            System.err.println("Unknown API checker storage type '" + storageType + "', using journal");
+        }
+        return new CheckStateJournal(objectMapper, filePath);
     }
 
     /**
      * Initializes API data by merging new data and keeping existing states.
+     * If the groups and APIs are the same as the current ones, nothing is changed or persisted.
      *
      * @param groupedApis Map of grouped APIs with their metadata.
      */
     public void initializeApis(Map<String, List<ApiInfo>> groupedApis) {
-        // Remove deleted groups
-        Set<String> newGroupNames = groupedApis.keySet();
-        groupedApiMap.keySet().removeIf(groupName -> !newGroupNames.contains(groupName));
-
-        // Add or update APIs while maintaining existing check states
-        groupedApis.forEach((groupName, apiList) -> {
-            List<ApiInfo> existingApiList = groupedApiMap.getOrDefault(groupName, new ArrayList<>());
-
-            Map<String, ApiInfo> existingApiMap = existingApiList.stream()
-                    .collect(Collectors.toMap(
-                            api -> api.getHttpMethod() + "_" + api.getPath(),
-                            api -> api
-                    ));
-
-            List<ApiInfo> finalApiList = new ArrayList<>();
-
-            for (ApiInfo api : apiList) {
-                String key = api.getHttpMethod() + "_" + api.getPath();
-                if (existingApiMap.containsKey(key)) {
-                    api.setChecked(existingApiMap.get(key).isChecked()); // Preserve existing check state
+        lock.writeLock().lock();
+        try {
+            if (matchesCurrentApis(groupedApis)) {
+                recordGroupSizes();
+                return;
+            }
+
+            Map<String, ApiInfo> previousIndex = new LinkedHashMap<>(apiIndex);
+            long timestamp = System.currentTimeMillis();
+            Map<String, String> legacyPaths = new HashMap<>(); // Migrated legacy keys and their paths
+            List<CheckRecord> migratedRecords = new ArrayList<>();
+
+            // Remove deleted groups and their APIs
+            groupIndex.clear();
+            apiIndex.clear();
+
+            // Add or update APIs while maintaining existing check states
+            groupedApis.forEach((groupName, apiList) -> {
+                List<ApiInfo> finalApiList = new ArrayList<>(apiList.size());
+
+                for (ApiInfo api : apiList) {
+                    String key = ApiKeys.of(api);
+                    ApiInfo existingApi = previousIndex.get(key);
+                    CheckRecord restored = restoredStates.remove(key);
+                    if (existingApi != null) {
+                        // Preserve existing check state
+                        api.setChecked(existingApi.isChecked());
+                        api.setNickname(existingApi.getNickname());
+                    } else if (restored != null) {
+                        applyRecord(api, restored); // Apply the stored state of a newly scanned API
+                    } else if (migrateLegacyState(api, previousIndex)) {
+                        legacyPaths.putIfAbsent(ApiKeys.of(LEGACY_UNKNOWN_METHOD, api.getPath()), api.getPath());
+                        migratedRecords.add(new CheckRecord(
+                                api.getHttpMethod(), api.getPath(), api.getNickname(), true, timestamp));
+                    }
+                    finalApiList.add(api);
                 }
-                finalApiList.add(api);
+
+                putGroup(groupName, finalApiList);
+            });
+
+            // A legacy state is carried over once; the cleared legacy records let compaction drop it
+            legacyPaths.forEach((legacyKey, path) -> {
+                restoredStates.remove(legacyKey);
+                previousIndex.remove(legacyKey);
+                migratedRecords.add(new CheckRecord(LEGACY_UNKNOWN_METHOD, path, "", false, timestamp));
+            });
+            if (!migratedRecords.isEmpty()) {
+                appendToJournal(migratedRecords);
             }
 
-            groupedApiMap.put(groupName, finalApiList);
-        });
+            // Keep the states of APIs that are no longer scanned; another instance may still serve them
+            previousIndex.forEach((key, api) -> {
+                if (api.isChecked() && !apiIndex.containsKey(key)) {
+                    restoredStates.put(key, new CheckRecord(api.getHttpMethod(), api.getPath(), api.getNickname(), true, 0));
+                }
+            });
+            searchIndex.rebuild(groupIndex, apiIndex);
+
+            structureVersion = ++version;
+            changeLog.clear();
+            eventPublisher.publishEvent(new ApiCheckChangedEvent(version, true, List.of(), List.of()));
+            recordGroupSizes();
+        } finally {
+            lock.writeLock().unlock();
+        }
 
         saveToFile(); // Persist updated data
     }
 
+    private static void validate(CheckUpdate update) {
+        if (update == null) {
+            throw new IllegalArgumentException("Missing check update");
+        }
+        if (update.httpMethod() == null || update.httpMethod().isBlank()
+                || update.path() == null || update.path().isBlank()) {
+            throw new IllegalArgumentException("Check update without HTTP method or path: " + update);
+        }
+        if (update.nickname() == null) {
+            throw new IllegalArgumentException("Check update without nickname: " + update);
+        }
+    }
+
+    /**
+     * Carries a checked state stored under the "UNKNOWN" HTTP method over to an API without a state of its own.
+     * Earlier versions stored mappings without an HTTP method, and those with one set only on
+     * {@code @RequestMapping}, as "UNKNOWN"; they are now tracked as "ALL" or by their actual methods.
+     * Every API of the path scanned together inherits the state; the caller then drops the legacy state.
+     *
+     * @param api           Newly scanned API.
+     * @param previousIndex APIs known before the scan.
+     * @return True if the API inherited a checked state.
+     */
+    private boolean migrateLegacyState(ApiInfo api, Map<String, ApiInfo> previousIndex) {
+        String legacyKey = ApiKeys.of(LEGACY_UNKNOWN_METHOD, api.getPath());
+        ApiInfo legacyApi = previousIndex.get(legacyKey);
+        CheckRecord legacyRecord = restoredStates.get(legacyKey);
+        if (legacyApi != null && legacyApi.isChecked()) {
+            api.setChecked(true);
+            api.setNickname(legacyApi.getNickname());
+            return true;
+        }
+        if (legacyApi == null && legacyRecord != null && legacyRecord.checked()) {
+            applyRecord(api, legacyRecord);
+            return true;
+        }
+        return false;
+    }
+
+    private void recordGroupSizes() {
+        Map<String, Integer> groupSizes = new LinkedHashMap<>();
+        groupIndex.forEach((groupName, keys) -> groupSizes.put(groupName, keys.size()));
+        metrics.recordGroupSizes(groupSizes);
+    }
+
+    /**
+     * Tells whether scanned groups hold the same APIs in the same order as the current groups,
+     * ignoring check states. Must be called while holding a lock.
+     *
+     * @param groupedApis Scanned groups.
+     * @return True if merging the groups would not change anything.
+     */
+    private boolean matchesCurrentApis(Map<String, List<ApiInfo>> groupedApis) {
+        if (!groupIndex.keySet().equals(groupedApis.keySet())) {
+            return false;
+        }
+
+        for (Map.Entry<String, List<ApiInfo>> group : groupedApis.entrySet()) {
+            List<String> keys = groupIndex.get(group.getKey());
+            List<ApiInfo> apiList = group.getValue();
+            if (keys.size() != apiList.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                ApiInfo api = apiList.get(i);
+                ApiInfo existingApi = apiIndex.get(keys.get(i));
+                if (existingApi == null
+                        || !existingApi.getHttpMethod().equals(api.getHttpMethod())
+                        || !existingApi.getPath().equals(api.getPath())
+                        || !Objects.equals(existingApi.getDescription(), api.getDescription())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Updates the check status of a specific API.
      *
@@ -78,55 +294,468 @@ public class ApiCheckRepository {
      * @param checked    New check status.
      */
     public void updateCheckStatus(String httpMethod, String path, String nickname, boolean checked) {
-        groupedApiMap.values().forEach(apiList -> {
-            apiList.stream()
-                    .filter(apiInfo ->
-                            apiInfo.getPath().equals(path) &&
-                                    apiInfo.getHttpMethod().equalsIgnoreCase(httpMethod)
-                    )
-                    .findFirst()
-                    .ifPresent(apiInfo -> {
-                        apiInfo.setNickname(checked ? nickname : "");
-                        apiInfo.setChecked(checked);
-                    });
+        updateCheckStatuses(List.of(new CheckUpdate(httpMethod, path, checked, nickname)));
+    }
+
+    /**
+     * Updates the check status of several APIs at once.
+     * All updates are applied under one lock, appended to the journal in one write
+     * and published as one event. Updates of untracked APIs are ignored.
+     * The whole batch is rejected if any update lacks its HTTP method, path or nickname.
+     *
+     * @param updates Check state changes to apply.
+     * @return The applied changes.
+     * @throws IllegalArgumentException If an update is incomplete; nothing is applied then.
+     */
+    public List<ApiCheckDelta> updateCheckStatuses(List<CheckUpdate> updates) {
+        for (CheckUpdate update : updates) {
+            validate(update);
+        }
+
+        lock.writeLock().lock();
+        try {
+            long timestamp = System.currentTimeMillis();
+            List<CheckRecord> records = new ArrayList<>(updates.size());
+            List<ApiCheckDelta> deltas = new ArrayList<>(updates.size());
+
+            for (CheckUpdate update : updates) {
+                ApiInfo apiInfo = apiIndex.get(ApiKeys.of(update.httpMethod(), update.path()));
+                if (apiInfo == null) continue;
+
+                CheckRecord record = new CheckRecord(
+                        apiInfo.getHttpMethod(), apiInfo.getPath(), update.nickname(), update.checked(), timestamp);
+                applyRecord(apiInfo, record);
+                records.add(record);
+
+                long newVersion = ++version;
+                logChange(newVersion, ApiKeys.of(apiInfo));
+                deltas.add(deltaOf(apiInfo, newVersion));
+            }
+
+            if (!records.isEmpty()) {
+                metrics.recordCheckUpdates(records.size());
+                appendToJournal(records); // Persist changes
+                eventPublisher.publishEvent(new ApiCheckChangedEvent(version, false, List.copyOf(deltas), List.copyOf(records)));
+            }
+            return deltas;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the check changes other instances wrote to a shared store.
+     */
+    private void applyExternalChanges() {
+        lock.writeLock().lock();
+        try {
+            pollExternalRecords();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the records other instances wrote to a shared store and applies those that change an API.
+     * Must be called while holding the write lock.
+     */
+    private void pollExternalRecords() {
+        List<ApiCheckDelta> deltas = new ArrayList<>();
+        store.poll(record -> {
+            String key = ApiKeys.of(record.httpMethod(), record.path());
+            ApiInfo apiInfo = apiIndex.get(key);
+            if (apiInfo == null) {
+                restoredStates.put(key, record);
+                return;
+            }
+
+            String nickname = record.checked() ? record.nickname() : "";
+            if (apiInfo.isChecked() == record.checked() && Objects.equals(apiInfo.getNickname(), nickname)) {
+                return;
+            }
+
+            applyRecord(apiInfo, record);
+            long newVersion = ++version;
+            logChange(newVersion, key);
+            deltas.add(deltaOf(apiInfo, newVersion));
         });
 
-        saveToFile(); // Persist changes
+        if (!deltas.isEmpty()) {
+            // The records belong to the instance that made the changes, see ApiCheckChangedEvent
+            eventPublisher.publishEvent(new ApiCheckChangedEvent(version, false, List.copyOf(deltas), List.of()));
+        }
+    }
+
+    /**
+     * Finds a single API by its HTTP method and path.
+     *
+     * @param httpMethod HTTP method of the API.
+     * @param path       Path of the API.
+     * @return A copy of the API, or null if it is not tracked.
+     */
+    public ApiInfo findApi(String httpMethod, String path) {
+        lock.readLock().lock();
+        try {
+            ApiInfo apiInfo = apiIndex.get(ApiKeys.of(httpMethod, path));
+            return apiInfo != null ? copyOf(apiInfo) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the current repository version, which increases with every change.
+     *
+     * @return The repository version.
+     */
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      * Returns all grouped APIs.
+     * The returned map is the immutable content of the current snapshot and must not be modified.
      *
      * @return Map of grouped APIs.
      */
     public Map<String, List<ApiInfo>> getAllGroupedApis() {
-        return groupedApiMap;
+        return getSnapshot().getGroups();
+    }
+
+    /**
+     * Returns the snapshot of the current version, building it if it does not exist yet.
+     *
+     * @return The current snapshot.
+     */
+    public ApiSnapshot getSnapshot() {
+        lock.readLock().lock();
+        try {
+            ApiSnapshot current = snapshot;
+            if (current != null && current.getVersion() == version) {
+                return current;
+            }
+
+            Map<String, List<ApiInfo>> groupedApis = new LinkedHashMap<>();
+            groupIndex.forEach((groupName, keys) -> {
+                List<ApiInfo> apiList = new ArrayList<>(keys.size());
+                for (String key : keys) {
+                    ApiInfo apiInfo = apiIndex.get(key);
+                    if (apiInfo != null) {
+                        apiList.add(copyOf(apiInfo));
+                    }
+                }
+                groupedApis.put(groupName, Collections.unmodifiableList(apiList));
+            });
+
+            current = new ApiSnapshot(version, Collections.unmodifiableMap(groupedApis), objectMapper);
+            snapshot = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the snapshot to store, which adds the checked states of APIs this instance does not track
+     * as a separate group, so compaction keeps the states of other instances and of APIs not scanned yet.
+     * Must be called while holding a lock.
+     *
+     * @return The snapshot to store.
+     */
+    private ApiSnapshot getStoredSnapshot() {
+        ApiSnapshot current = getSnapshot();
+        List<ApiInfo> restored = new ArrayList<>();
+        restoredStates.values().forEach(record -> {
+            if (record.checked()) {
+                restored.add(new ApiInfo(record.httpMethod(), record.path(), "", record.nickname(), true));
+            }
+        });
+        if (restored.isEmpty()) {
+            return current;
+        }
+
+        Map<String, List<ApiInfo>> groupedApis = new LinkedHashMap<>(current.getGroups());
+        groupedApis.put(RESTORED_GROUP, restored);
+        return new ApiSnapshot(current.getVersion(), groupedApis, objectMapper);
+    }
+
+    /**
+     * Returns the check state changes made after a version.
+     * Everything is returned instead if the groups changed since then, if the change log no longer
+     * reaches back that far, or if the version is ahead of this instance, i.e. it was issued by
+     * another instance or before a restart.
+     *
+     * @param sinceVersion The version the client already has.
+     * @return The changes up to the current version.
+     */
+    public ApiChanges getChangesSince(long sinceVersion) {
+        lock.readLock().lock();
+        try {
+            if (sinceVersion == version) {
+                return new ApiChanges(version, false, null, List.of());
+            }
+
+            boolean truncated = !changeLog.isEmpty() && changeLog.firstKey() > sinceVersion + 1;
+            if (sinceVersion > version || sinceVersion < structureVersion || truncated) {
+                return new ApiChanges(version, true, getSnapshot().getGroups(), null);
+            }
+
+            // Keep only the latest version of every changed key
+            Map<String, Long> changedKeys = new LinkedHashMap<>();
+            changeLog.tailMap(sinceVersion, false).forEach((changeVersion, key) -> {
+                changedKeys.remove(key);
+                changedKeys.put(key, changeVersion);
+            });
+
+            List<ApiCheckDelta> changes = new ArrayList<>(changedKeys.size());
+            changedKeys.forEach((key, changeVersion) -> {
+                ApiInfo apiInfo = apiIndex.get(key);
+                if (apiInfo != null) {
+                    changes.add(deltaOf(apiInfo, changeVersion));
+                }
+            });
+            return new ApiChanges(version, false, null, changes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the APIs matching a query, one page at a time.
+     * Cursors stay valid until the groups change.
+     *
+     * @param query Filters, cursor and page size.
+     * @return The page of matching APIs.
+     * @throws IllegalArgumentException If the cursor is malformed or the groups changed since it was issued.
+     */
+    public ApiQueryResult query(ApiQuery query) {
+        lock.readLock().lock();
+        try {
+            int fromOrdinal = 0;
+            if (query.cursor() != null && !query.cursor().isBlank()) {
+                fromOrdinal = parseCursor(query.cursor());
+            }
+
+            int limit = Math.max(1, Math.min(query.limit(), MAX_QUERY_LIMIT));
+            ApiSearchIndex.Page page = searchIndex.query(query, fromOrdinal, limit);
+
+            List<ApiQueryHit> items = new ArrayList<>(page.keys().size());
+            for (int i = 0; i < page.keys().size(); i++) {
+                ApiInfo apiInfo = apiIndex.get(page.keys().get(i));
+                items.add(new ApiQueryHit(page.keys().get(i), page.groups().get(i), apiInfo.getHttpMethod(),
+                        apiInfo.getPath(), apiInfo.getDescription(), apiInfo.getNickname(), apiInfo.isChecked()));
+            }
+
+            String nextCursor = page.nextOrdinal() >= 0 ? structureVersion + "." + page.nextOrdinal() : null;
+            return new ApiQueryResult(version, page.total(), page.groupCounts(), items, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the ordinal of a cursor issued for the current groups. Must be called while holding a lock.
+     */
+    private int parseCursor(String cursor) {
+        int separator = cursor.indexOf('.');
+        try {
+            if (separator > 0 && Long.parseLong(cursor.substring(0, separator)) == structureVersion) {
+                return Integer.parseInt(cursor.substring(separator + 1));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        throw new IllegalArgumentException("Cursor is no longer valid, the APIs changed: " + cursor);
+    }
+
+    /**
+     * Adds a group to both indexes. Must be called while holding the write lock.
+     *
+     * @param groupName Name of the group.
+     * @param apiList   APIs of the group.
+     */
+    private void putGroup(String groupName, List<ApiInfo> apiList) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (ApiInfo api : apiList) {
+            String key = ApiKeys.of(api);
+            apiIndex.put(key, api);
+            keys.add(key);
+        }
+        groupIndex.put(groupName, List.copyOf(keys));
+    }
+
+    /**
+     * Applies a check record to an API. Must be called while holding the write lock.
+     *
+     * @param apiInfo API to update.
+     * @param record  Check record to apply.
+     */
+    private void applyRecord(ApiInfo apiInfo, CheckRecord record) {
+        String previousNickname = apiInfo.getNickname();
+        apiInfo.setNickname(record.checked() ? record.nickname() : "");
+        apiInfo.setChecked(record.checked());
+        searchIndex.update(ApiKeys.of(apiInfo), previousNickname, apiInfo);
+    }
+
+    /**
+     * Records a changed key in the bounded change log. Must be called while holding the write lock.
+     *
+     * @param changeVersion Version of the change.
+     * @param key           Key of the changed API.
+     */
+    private void logChange(long changeVersion, String key) {
+        changeLog.put(changeVersion, key);
+        if (changeLog.size() > CHANGE_LOG_LIMIT) {
+            changeLog.pollFirstEntry();
+        }
+    }
+
+    private static ApiCheckDelta deltaOf(ApiInfo apiInfo, long version) {
+        return new ApiCheckDelta(ApiKeys.of(apiInfo), apiInfo.getHttpMethod(), apiInfo.getPath(),
+                apiInfo.isChecked(), apiInfo.getNickname(), version);
+    }
+
+    private static ApiInfo copyOf(ApiInfo apiInfo) {
+        return new ApiInfo(
+                apiInfo.getHttpMethod(),
+                apiInfo.getPath(),
+                apiInfo.getDescription(),
+                apiInfo.getNickname(),
+                apiInfo.isChecked());
+    }
+
+    /**
+     * Loads the stored state and starts watching the store for changes of other instances.
+     * Does nothing if the state is already loaded.
+     */
+    public void load() {
+        if (!loaded.compareAndSet(false, true)) {
+            return;
+        }
+        loadFromFile();
+        store.watch(this::applyExternalChanges);
     }
 
     /**
-     * Loads API data from a file.
+     * Loads the snapshot and replays the stored records on top of it.
      */
     private void loadFromFile() {
-        File file = new File(filePath);
-        if (file.exists()) {
-            try {
-                Map<String, List<ApiInfo>> savedData = objectMapper.readValue(file, new TypeReference<>() {
-                });
-                groupedApiMap.putAll(savedData);
-            } catch (IOException e) {
-                System.err.println("Failed to load API data from file: " + e.getMessage());
+        long startTime = System.nanoTime();
+        Map<String, List<ApiInfo>> savedData;
+        try {
+            savedData = store.readSnapshot();
+        } catch (IOException e) {
+            System.err.println("Failed to load API data from file: " + e.getMessage());
+            savedData = Map.of();
+        }
+
+        lock.writeLock().lock();
+        try {
+            savedData.forEach((groupName, apiList) -> {
+                if (RESTORED_GROUP.equals(groupName)) {
+                    apiList.forEach(apiInfo -> restoredStates.put(ApiKeys.of(apiInfo), new CheckRecord(
+                            apiInfo.getHttpMethod(), apiInfo.getPath(), apiInfo.getNickname(), apiInfo.isChecked(), 0)));
+                } else {
+                    putGroup(groupName, apiList);
+                }
+            });
+            int replayed = store.replay(record -> {
+                String key = ApiKeys.of(record.httpMethod(), record.path());
+                ApiInfo apiInfo = apiIndex.get(key);
+                if (apiInfo != null) {
+                    applyRecord(apiInfo, record);
+                } else {
+                    restoredStates.put(key, record);
+                }
+            });
+            searchIndex.rebuild(groupIndex, apiIndex);
+            if (replayed > 0) {
+                compactor.execute(this::compactIfPending);
             }
+        } finally {
+            lock.writeLock().unlock();
         }
+
+        metrics.recordLoad(System.nanoTime() - startTime, store.storedSize());
     }
 
     /**
-     * Saves API data to a file.
+     * Writes check records to the store. Must be called while holding the write lock,
+     * so that the stored order matches the order in which changes were applied.
+     *
+     * @param records Records to append.
      */
-    private void saveToFile() {
+    private void appendToJournal(List<CheckRecord> records) {
         try {
-            objectMapper.writeValue(new File(filePath), groupedApiMap);
+            store.append(records);
         } catch (IOException e) {
-            System.err.println("Failed to save API data to file: " + e.getMessage());
+            System.err.println("Failed to store API check data: " + e.getMessage());
+            return;
+        }
+
+        if (store.pendingRecords() >= compactionThreshold) {
+            compactor.execute(this::compactIfPending);
+        }
+    }
+
+    private void compactIfPending() {
+        try {
+            if (store.pendingRecords() > 0) {
+                saveToFile();
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic compaction for good
+            System.err.println("Failed to compact API check data: " + e);
+        }
+    }
+
+    /**
+     * Saves API data to a file by compacting the journal into a new snapshot.
+     * The journal is rotated, changes of other instances are applied and the state is copied
+     * under the write lock, so no change can fall between them. The write lock is released before
+     * the snapshot is written; with shared storage writers still wait for the snapshot, because
+     * the journal stays locked until it is truncated. A shared store skips the compaction instead
+     * of waiting for another instance while the write lock is held.
+     */
+    private void saveToFile() {
+        synchronized (saveMonitor) {
+            int holdCount = lock.getWriteHoldCount();
+            lock.writeLock().lock();
+            try {
+                long startTime = System.nanoTime();
+                long size = store.compact(() -> {
+                    try {
+                        pollExternalRecords();
+                        return getStoredSnapshot();
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+                if (size >= 0) {
+                    metrics.recordSave(System.nanoTime() - startTime, size);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to save API data to file: " + e.getMessage());
+            } finally {
+                if (lock.getWriteHoldCount() > holdCount) {
+                    lock.writeLock().unlock(); // The store failed before taking the snapshot
+                }
+            }
         }
     }
+
+    /**
+     * Stops the compactor and folds the remaining records into the snapshot.
+     */
+    @PreDestroy
+    public void close() {
+        compactor.shutdown();
+        compactIfPending();
+        store.close();
+    }
 }
@@ -0,0 +1,20 @@
+package api.link.checker.core;
+
+import org.springframework.boot.availability.AvailabilityState;
+
+/**
+ * Availability of the API checker, published as an {@link org.springframework.boot.availability.AvailabilityChangeEvent}
+ * and readable through {@code ApplicationAvailability.getState(ApiCheckerAvailability.class)}.
+ */
+public enum ApiCheckerAvailability implements AvailabilityState {
+
+    /**
+     * The stored state is being loaded and the APIs are being scanned; the endpoints answer 503.
+     */
+    WARMING_UP,
+
+    /**
+     * The checker serves requests.
+     */
+    READY
+}
@@ -0,0 +1,121 @@
+package api.link.checker.core;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controls when the stored state is loaded and the APIs are scanned.
+ *
+ * By default both happen during startup: the repository loads in its constructor and the scanner
+ * scans on context refresh. With {@code api.checker.startup.async=true} they are moved off the
+ * startup path: once the application is ready, a background thread loads the repository and runs
+ * the scans that were deferred until then. Until it finishes the checker is
+ * {@link ApiCheckerAvailability#WARMING_UP}, and the endpoints answer 503.
+ */
+@Component
+public class ApiCheckerStartup {
+    private final boolean async;
+    private final ApiCheckRepository apiCheckRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<Runnable> deferredTasks = new ArrayList<>();
+
+    private volatile boolean ready;
+    private boolean started;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param async              Whether loading and scanning run in the background after startup.
+     * @param apiCheckRepository Repository to load.
+     * @param eventPublisher     Publisher for availability changes.
+     */
+    public ApiCheckerStartup(@Value("${api.checker.startup.async:false}") boolean async,
+                             ApiCheckRepository apiCheckRepository,
+                             ApplicationEventPublisher eventPublisher) {
+        this.async = async;
+        this.apiCheckRepository = apiCheckRepository;
+        this.eventPublisher = eventPublisher;
+        this.ready = !async;
+        AvailabilityChangeEvent.publish(eventPublisher, this,
+                async ? ApiCheckerAvailability.WARMING_UP : ApiCheckerAvailability.READY);
+    }
+
+    /**
+     * Tells whether the stored state is loaded and the APIs are scanned.
+     *
+     * @return False while warming up.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Runs a task that needs the loaded repository, now or at the end of the warm-up.
+     *
+     * @param task The task to run.
+     */
+    public void runWhenReady(Runnable task) {
+        synchronized (this) {
+            if (!ready) {
+                deferredTasks.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    /**
+     * Starts the warm-up thread once the application is ready, so it never delays the host application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        if (!async || started) {
+            return;
+        }
+        started = true;
+
+        Thread thread = new Thread(this::warmUp, "api-checker-startup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp() {
+        try {
+            apiCheckRepository.load();
+            runDeferredTasks();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to warm up the API checker: " + e.getMessage());
+            // Serve what was loaded rather than warming up forever
+            synchronized (this) {
+                deferredTasks.clear();
+                ready = true;
+            }
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ApiCheckerAvailability.READY);
+    }
+
+    /**
+     * Runs deferred tasks until none are left; tasks deferred meanwhile are run as well.
+     */
+    private void runDeferredTasks() {
+        while (true) {
+            List<Runnable> tasks;
+            synchronized (this) {
+                if (deferredTasks.isEmpty()) {
+                    ready = true;
+                    return;
+                }
+                tasks = new ArrayList<>(deferredTasks);
+                deferredTasks.clear();
+            }
+            tasks.forEach(Runnable::run);
+        }
+    }
+}
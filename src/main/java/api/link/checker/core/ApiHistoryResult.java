@@ -0,0 +1,12 @@
+package api.link.checker.core;
+
+import java.util.List;
+
+/**
+ * Check state changes matching a history query.
+ *
+ * @param total  Number of matching changes in the queried time range.
+ * @param events The most recent matching changes, newest first, at most as many as the query limit.
+ */
+public record ApiHistoryResult(int total, List<CheckRecord> events) {
+}
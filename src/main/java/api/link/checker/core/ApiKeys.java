@@ -0,0 +1,63 @@
+package api.link.checker.core;
+
+/**
+ * Builds the keys used to index tracked APIs.
+ * A key combines the upper-cased HTTP method and the normalized path (e.g. "GET_/users/{id}").
+ */
+public final class ApiKeys {
+
+    private ApiKeys() {
+    }
+
+    /**
+     * Builds the index key for an API.
+     *
+     * @param httpMethod HTTP method of the API.
+     * @param path       Path of the API.
+     * @return The key in the form "METHOD_/normalized/path".
+     */
+    public static String of(String httpMethod, String path) {
+        String method = httpMethod == null ? "" : httpMethod.trim().toUpperCase();
+        return method + "_" + normalizePath(path);
+    }
+
+    /**
+     * Builds the index key for an API.
+     *
+     * @param apiInfo The API to build the key for.
+     * @return The key in the form "METHOD_/normalized/path".
+     */
+    public static String of(ApiInfo apiInfo) {
+        return of(apiInfo.getHttpMethod(), apiInfo.getPath());
+    }
+
+    /**
+     * Normalizes a path so that equivalent spellings share one key.
+     * Adds a leading slash, collapses repeated slashes and drops a trailing slash.
+     *
+     * @param path The path to normalize.
+     * @return The normalized path.
+     */
+    public static String normalizePath(String path) {
+        if (path == null || path.isBlank()) {
+            return "/";
+        }
+
+        path = path.trim();
+        StringBuilder normalized = new StringBuilder(path.length() + 1);
+        char previous = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '/' && previous == '/') continue;
+            if (i == 0 && c != '/') normalized.append('/');
+            normalized.append(c);
+            previous = c;
+        }
+
+        int length = normalized.length();
+        if (length > 1 && normalized.charAt(length - 1) == '/') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package api.link.checker.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path-segment trie over tracked APIs, used to match OpenAPI operations to them.
+ *
+ * Path variables are stored in a single wildcard node per level, so "/users/{id}" and
+ * "/users/{userId}" resolve to the same APIs. Paths are normalized with {@link ApiKeys#normalizePath},
+ * which makes trailing-slash and repeated-slash differences irrelevant.
+ * APIs tracked as "ALL", whose mapping accepts every HTTP method, match operations of any method.
+ * A lookup costs time proportional to the number of path segments.
+ */
+final class ApiPathMatcher {
+
+    private final Node root = new Node();
+
+    /**
+     * Builds the trie from grouped APIs.
+     *
+     * @param apiInfoMap A map containing API group information.
+     */
+    ApiPathMatcher(Map<String, List<ApiInfo>> apiInfoMap) {
+        apiInfoMap.values().forEach(this::addAll);
+    }
+
+    private void addAll(Collection<ApiInfo> apiInfos) {
+        for (ApiInfo apiInfo : apiInfos) {
+            Node node = root;
+            for (String segment : segments(apiInfo.getPath())) {
+                node = isVariable(segment)
+                        ? node.variableChild()
+                        : node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+            node.apis.computeIfAbsent(apiInfo.getHttpMethod().toUpperCase(), m -> new ArrayList<>()).add(apiInfo);
+        }
+    }
+
+    /**
+     * Finds the tracked APIs matching an HTTP method and path template.
+     *
+     * @param httpMethod HTTP method of the operation.
+     * @param path       Path template of the operation.
+     * @return The matching APIs of the method followed by those of any method, or an empty list.
+     */
+    List<ApiInfo> match(String httpMethod, String path) {
+        Node node = root;
+        for (String segment : segments(path)) {
+            node = isVariable(segment) ? node.variable : node.literals.get(segment);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        List<ApiInfo> methodApis = node.apis.getOrDefault(httpMethod.toUpperCase(), List.of());
+        List<ApiInfo> anyMethodApis = node.apis.getOrDefault(ApiScanner.ALL_METHODS, List.of());
+        if (anyMethodApis.isEmpty()) {
+            return methodApis;
+        }
+        if (methodApis.isEmpty()) {
+            return anyMethodApis;
+        }
+
+        List<ApiInfo> apis = new ArrayList<>(methodApis.size() + anyMethodApis.size());
+        apis.addAll(methodApis);
+        apis.addAll(anyMethodApis);
+        return apis;
+    }
+
+    private static String[] segments(String path) {
+        String normalized = ApiKeys.normalizePath(path);
+        return normalized.length() == 1 ? new String[0] : normalized.substring(1).split("/");
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 1 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, List<ApiInfo>> apis = new HashMap<>();
+        private Node variable;
+
+        private Node variableChild() {
+            if (variable == null) {
+                variable = new Node();
+            }
+            return variable;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package api.link.checker.core;
+
+/**
+ * Filters of an API query. Null or blank filters match every API.
+ *
+ * @param group      Name of the group.
+ * @param httpMethod HTTP method, case-insensitive.
+ * @param checked    Check status, or null for both.
+ * @param nickname   Nickname of the user who checked the API, case-insensitive.
+ * @param text       Text contained in the path or description, case-insensitive.
+ * @param cursor     Cursor returned with the previous page, or null for the first page.
+ * @param limit      Maximum number of APIs in the page.
+ */
+public record ApiQuery(String group, String httpMethod, Boolean checked, String nickname, String text,
+                       String cursor, int limit) {
+}
@@ -0,0 +1,16 @@
+package api.link.checker.core;
+
+/**
+ * An API matching a query.
+ *
+ * @param key         Index key of the API (see {@link ApiKeys}).
+ * @param group       Name of the group of the API.
+ * @param httpMethod  HTTP method of the API.
+ * @param path        Path of the API.
+ * @param description Description of the API.
+ * @param nickname    Nickname of the user who checked the API, or an empty string.
+ * @param checked     Check status of the API.
+ */
+public record ApiQueryHit(String key, String group, String httpMethod, String path, String description,
+                          String nickname, boolean checked) {
+}
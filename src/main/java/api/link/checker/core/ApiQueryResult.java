@@ -0,0 +1,17 @@
+package api.link.checker.core;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of APIs matching a query.
+ *
+ * @param version     Repository version the page was read from.
+ * @param total       Number of matching APIs, within the queried group if any.
+ * @param groupCounts Number of matching APIs per group, ignoring the group filter.
+ * @param items       Matching APIs of the page, in group order.
+ * @param nextCursor  Cursor of the next page, or null if this is the last page.
+ */
+public record ApiQueryResult(long version, int total, Map<String, Integer> groupCounts, List<ApiQueryHit> items,
+                             String nextCursor) {
+}
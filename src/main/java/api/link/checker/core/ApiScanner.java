@@ -2,40 +2,83 @@ package api.link.checker.core;
 
 import api.link.checker.annotation.ApiGroup;
 import api.link.checker.annotation.TrackApi;
+import api.link.checker.metrics.ApiCheckerMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
-import org.springframework.web.bind.annotation.DeleteMapping;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Scans APIs annotated with @ApiGroup and @TrackApi.
  * Updates the repository with newly scanned API data.
+ *
+ * APIs are taken from the mappings Spring MVC already resolved ({@link RequestMappingHandlerMapping}),
+ * so every path and HTTP method of a mapping is tracked, including meta-annotated mappings and path
+ * prefixes. An API without a restricted HTTP method is tracked as "ALL". @ApiGroup beans without
+ * handler methods, such as those of a non-web parent context, are read from the compile-time
+ * {@link TrackApiIndex} if listed there and scanned with reflection otherwise.
+ *
+ * The result of every @ApiGroup class is kept with a fingerprint of the class, so a repeated refresh
+ * (a child context, a devtools restart) only rebuilds classes that changed. A class that is still
+ * the same {@link Class} is reused as is; another class of the same name is reused if the hash of
+ * its group, mappings and tracked method signatures is unchanged. The hash is taken from the rows of
+ * the index if the class is listed there and with reflection otherwise. The fingerprints are compared
+ * before any handler method is read, and only changed classes are looked up in the handler mappings.
+ * A change of the path prefixes rebuilds every class. If no group changed, the repository is not touched.
+ *
+ * With asynchronous startup, scans requested before the warm-up finished are run by the warm-up
+ * thread (see {@link ApiCheckerStartup}).
  */
 @Component
 public class ApiScanner implements ApplicationListener<ContextRefreshedEvent> {
+    static final String ALL_METHODS = "ALL";
+
     private final ApiCheckRepository apiCheckRepository;
+    private final SwaggerService swaggerService;
+    private final ApiCheckerStartup startup;
+    private final ApiCheckerMetrics metrics;
+
+    private Map<String, ScannedGroup> scannedGroups; // Null until the first refresh
+    private List<String> pathPrefixes;
 
     /**
      * Constructor with dependency injection.
      *
      * @param apiCheckRepository Repository for storing API metadata.
+     * @param swaggerService     Service whose cached Swagger document is dropped on refresh.
+     * @param startup            Startup control that decides when scans run.
+     * @param metrics            Metrics of the library, if any.
      */
-    public ApiScanner(ApiCheckRepository apiCheckRepository) {
+    public ApiScanner(ApiCheckRepository apiCheckRepository, SwaggerService swaggerService,
+                      ApiCheckerStartup startup, ObjectProvider<ApiCheckerMetrics> metrics) {
         this.apiCheckRepository = apiCheckRepository;
+        this.swaggerService = swaggerService;
+        this.startup = startup;
+        this.metrics = metrics.getIfAvailable(() -> ApiCheckerMetrics.NOOP);
     }
 
     /**
@@ -45,85 +88,306 @@ public class ApiScanner implements ApplicationListener<ContextRefreshedEvent> {
      */
     @Override
     public void onApplicationEvent(ContextRefreshedEvent event) {
-        Map<String, List<ApiInfo>> scannedApis = new HashMap<>();
+        ApplicationContext context = event.getApplicationContext();
+        startup.runWhenReady(() -> scan(context));
+    }
+
+    /**
+     * Scans the @ApiGroup beans of a context and its parents and merges changed groups into the repository.
+     * Groups are compared by fingerprint first; APIs are only built for groups that changed.
+     *
+     * @param context The refreshed context.
+     */
+    private synchronized void scan(ApplicationContext context) {
+        long startTime = System.nanoTime();
+
+        // The refreshed context may serve a different OpenAPI document
+        swaggerService.invalidateCache();
+
+        // Retrieve all beans annotated with @ApiGroup, including those of parent contexts
+        Map<String, Class<?>> beanClasses = new LinkedHashMap<>();
+        for (ApplicationContext current = context; current != null; current = current.getParent()) {
+            for (Object bean : current.getBeansWithAnnotation(ApiGroup.class).values()) {
+                Class<?> beanClass = AopUtils.getTargetClass(bean);
+                beanClasses.putIfAbsent(beanClass.getName(), beanClass);
+            }
+        }
+
+        // Path prefixes of the handler mappings are not part of any class, so a change rescans every class
+        List<String> prefixes = findPathPrefixes(context);
+        Map<String, ScannedGroup> previousGroups = scannedGroups != null && prefixes.equals(pathPrefixes)
+                ? scannedGroups : Map.of();
+
+        Map<String, ScannedGroup> currentGroups = new LinkedHashMap<>();
+        Map<String, ScannedGroup> changedGroups = new LinkedHashMap<>();
+
+        // The index is only loaded if a class has to be fingerprinted
+        TrackApiIndex index = null;
+        boolean indexLoaded = false;
+
+        for (Map.Entry<String, Class<?>> entry : beanClasses.entrySet()) {
+            String className = entry.getKey();
+            Class<?> beanClass = entry.getValue();
+            ScannedGroup previous = previousGroups.get(className);
+            if (previous != null && previous.beanClass() == beanClass) {
+                currentGroups.put(className, previous); // Annotations of a loaded class cannot change
+                continue;
+            }
+
+            if (!indexLoaded) {
+                index = TrackApiIndex.load(context.getClassLoader());
+                indexLoaded = true;
+            }
+
+            // An indexed class is fingerprinted from its index rows, which saves reflecting over its methods
+            TrackApiIndex.IndexedGroup indexedGroup = index != null ? index.findGroup(className) : null;
+            String groupName;
+            String fingerprint;
+            if (indexedGroup != null) {
+                groupName = indexedGroup.groupName();
+                fingerprint = fingerprint(indexedGroup);
+            } else {
+                ApiGroup apiGroup = AnnotationUtils.findAnnotation(beanClass, ApiGroup.class);
+
+                if (apiGroup == null) continue;
+
+                groupName = apiGroup.value();
+                fingerprint = fingerprint(beanClass, apiGroup);
+            }
+
+            if (previous != null && previous.fingerprint().equals(fingerprint)) {
+                currentGroups.put(className, new ScannedGroup(beanClass, fingerprint, previous.groupName(), previous.apis()));
+            } else {
+                ScannedGroup changed = new ScannedGroup(beanClass, fingerprint, groupName, List.of());
+                currentGroups.put(className, changed);
+                changedGroups.put(className, changed);
+            }
+        }
+
+        if (!changedGroups.isEmpty()) {
+            // Prefer the handler mappings, then the compile-time index; reflection is only used for classes missing from both
+            Map<String, List<ApiInfo>> mappedApis = findMappedApis(context, changedGroups.keySet());
+            for (ScannedGroup changed : changedGroups.values()) {
+                String className = changed.beanClass().getName();
+                List<ApiInfo> apis = mappedApis.get(className);
+                if (apis == null) {
+                    TrackApiIndex.IndexedGroup indexedGroup = index != null ? index.findGroup(className) : null;
+                    apis = indexedGroup != null ? indexedApis(indexedGroup) : reflectApis(changed.beanClass());
+                }
+                currentGroups.put(className, new ScannedGroup(changed.beanClass(), changed.fingerprint(), changed.groupName(), apis));
+            }
+        }
 
-        // Retrieve all beans annotated with @ApiGroup
-        Map<String, Object> beans = event.getApplicationContext().getBeansWithAnnotation(ApiGroup.class);
+        boolean changed = !changedGroups.isEmpty()
+                || scannedGroups == null || !currentGroups.keySet().equals(scannedGroups.keySet());
+        scannedGroups = currentGroups;
+        pathPrefixes = prefixes;
 
-        for (Object bean : beans.values()) {
-            Class<?> beanClass = AopUtils.getTargetClass(bean);
-            ApiGroup apiGroup = AnnotationUtils.findAnnotation(beanClass, ApiGroup.class);
+        if (changed) {
+            Map<String, List<ApiInfo>> scannedApis = new HashMap<>();
+            currentGroups.values().forEach(group -> scannedApis.put(group.groupName(), group.apis()));
 
-            if (apiGroup == null) continue;
+            // Update repository with scanned APIs
+            updateRepositoryWithScannedApis(scannedApis);
+        }
 
-            String groupName = apiGroup.value();
-            List<ApiInfo> apiInfos = new ArrayList<>();
+        metrics.recordScan(System.nanoTime() - startTime);
+    }
 
-            for (Method method : beanClass.getMethods()) {
-                TrackApi trackApi = AnnotationUtils.findAnnotation(method, TrackApi.class);
+    /**
+     * Collects the path prefixes of every {@link RequestMappingHandlerMapping} in a context and its parents.
+     *
+     * @param context The refreshed context.
+     * @return The prefixes, sorted.
+     */
+    private List<String> findPathPrefixes(ApplicationContext context) {
+        List<String> prefixes = new ArrayList<>();
+        for (ApplicationContext current = context; current != null; current = current.getParent()) {
+            for (RequestMappingHandlerMapping handlerMapping :
+                    current.getBeansOfType(RequestMappingHandlerMapping.class, false, false).values()) {
+                prefixes.addAll(handlerMapping.getPathPrefixes().keySet());
+            }
+        }
+        Collections.sort(prefixes);
+        return prefixes;
+    }
 
-                if (trackApi == null) {
-                    for (Class<?> iface : beanClass.getInterfaces()) {
-                        try {
-                            Method interfaceMethod = iface.getMethod(method.getName(), method.getParameterTypes());
-                            trackApi = AnnotationUtils.findAnnotation(interfaceMethod, TrackApi.class);
-                            if (trackApi != null) break;
-                        } catch (NoSuchMethodException ignored) {
+    /**
+     * Collects the @TrackApi handler methods of some controllers from every {@link RequestMappingHandlerMapping}
+     * in a context and its parents.
+     *
+     * @param context    The refreshed context.
+     * @param classNames Names of the controller classes to collect.
+     * @return The tracked APIs by controller class name, sorted by path and HTTP method. Every requested
+     * controller with handler methods has an entry, even if none of them is tracked.
+     */
+    private Map<String, List<ApiInfo>> findMappedApis(ApplicationContext context, Set<String> classNames) {
+        Map<String, Map<String, ApiInfo>> apisByClass = new HashMap<>();
+
+        for (ApplicationContext current = context; current != null; current = current.getParent()) {
+            for (RequestMappingHandlerMapping handlerMapping :
+                    current.getBeansOfType(RequestMappingHandlerMapping.class, false, false).values()) {
+                for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+                    HandlerMethod handlerMethod = entry.getValue();
+                    String className = handlerMethod.getBeanType().getName();
+                    if (!classNames.contains(className)) continue;
+
+                    Map<String, ApiInfo> apis = apisByClass.computeIfAbsent(className, name -> new TreeMap<>());
+
+                    TrackApi trackApi = handlerMethod.getMethodAnnotation(TrackApi.class);
+                    if (trackApi == null) continue;
+
+                    Set<RequestMethod> requestMethods = entry.getKey().getMethodsCondition().getMethods();
+                    for (String path : entry.getKey().getPatternValues()) {
+                        if (requestMethods.isEmpty()) {
+                            apis.putIfAbsent(path + " " + ALL_METHODS,
+                                    new ApiInfo(ALL_METHODS, path, trackApi.description(), "", false));
+                        }
+                        for (RequestMethod requestMethod : requestMethods) {
+                            apis.putIfAbsent(path + " " + requestMethod.name(),
+                                    new ApiInfo(requestMethod.name(), path, trackApi.description(), "", false));
                         }
                     }
                 }
+            }
+        }
+
+        Map<String, List<ApiInfo>> mappedApis = new HashMap<>();
+        apisByClass.forEach((className, apis) -> mappedApis.put(className, List.copyOf(apis.values())));
+        return mappedApis;
+    }
 
-                if (trackApi != null) {
-                    String httpMethod = findHttpMethod(method);
-                    String path = findPath(beanClass, method);
+    /**
+     * Hashes the group, the mappings and the tracked method signatures of an @ApiGroup class,
+     * which determine its APIs.
+     *
+     * @param beanClass The class to hash.
+     * @param apiGroup  The @ApiGroup annotation of the class.
+     * @return The fingerprint.
+     */
+    private String fingerprint(Class<?> beanClass, ApiGroup apiGroup) {
+        List<String> signatures = new ArrayList<>();
+        signatures.add("group " + apiGroup.value());
+        signatures.add("mapping " + AnnotatedElementUtils.findMergedAnnotation(beanClass, RequestMapping.class));
+        findTrackedMethods(beanClass).forEach((method, trackApi) -> signatures.add(method.toGenericString()
+                + " " + trackApi + " " + AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class)));
+        return fingerprint(signatures);
+    }
 
+    /**
+     * Hashes the rows of an indexed class, which the processor derived from the same annotations.
+     *
+     * @param indexedGroup The indexed group of the class.
+     * @return The fingerprint.
+     */
+    private static String fingerprint(TrackApiIndex.IndexedGroup indexedGroup) {
+        List<String> signatures = new ArrayList<>();
+        signatures.add("indexed group " + indexedGroup.groupName());
+        for (TrackApiIndex.IndexedApi api : indexedGroup.apis()) {
+            signatures.add(api.methodSignature() + " " + api.httpMethod() + " " + api.path() + " " + api.description());
+        }
+        return fingerprint(signatures);
+    }
+
+    /**
+     * Builds the APIs of an @ApiGroup class from its rows in the compile-time index.
+     *
+     * @param indexedGroup The indexed group of the class.
+     * @return The indexed APIs.
+     */
+    private static List<ApiInfo> indexedApis(TrackApiIndex.IndexedGroup indexedGroup) {
+        List<ApiInfo> apiInfos = new ArrayList<>();
+        for (TrackApiIndex.IndexedApi api : indexedGroup.apis()) {
+            apiInfos.add(new ApiInfo(api.httpMethod(), api.path(), api.description(), "", false));
+        }
+        return List.copyOf(apiInfos);
+    }
+
+    /**
+     * Builds the APIs of an @ApiGroup class without handler methods from its merged mappings.
+     *
+     * @param beanClass The class to scan.
+     * @return The scanned APIs.
+     */
+    private List<ApiInfo> reflectApis(Class<?> beanClass) {
+        RequestMapping classMapping = AnnotatedElementUtils.findMergedAnnotation(beanClass, RequestMapping.class);
+
+        List<ApiInfo> apiInfos = new ArrayList<>();
+        findTrackedMethods(beanClass).forEach((method, trackApi) -> {
+            RequestMapping methodMapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+            for (String path : findPaths(classMapping, methodMapping)) {
+                for (String httpMethod : findHttpMethods(methodMapping)) {
                     apiInfos.add(new ApiInfo(httpMethod, path, trackApi.description(), "", false));
                 }
             }
-            scannedApis.put(groupName, apiInfos);
+        });
+        return List.copyOf(apiInfos);
+    }
+
+    /**
+     * Finds the @TrackApi methods of a class with reflection, including those annotated on an interface.
+     *
+     * @param beanClass The class to scan.
+     * @return The tracked methods with their annotation, in declaration order as far as reflection keeps it.
+     */
+    private Map<Method, TrackApi> findTrackedMethods(Class<?> beanClass) {
+        Map<Method, TrackApi> trackedMethods = new LinkedHashMap<>();
+
+        for (Method method : beanClass.getMethods()) {
+            TrackApi trackApi = AnnotationUtils.findAnnotation(method, TrackApi.class);
+
+            if (trackApi == null) {
+                for (Class<?> iface : beanClass.getInterfaces()) {
+                    try {
+                        Method interfaceMethod = iface.getMethod(method.getName(), method.getParameterTypes());
+                        trackApi = AnnotationUtils.findAnnotation(interfaceMethod, TrackApi.class);
+                        if (trackApi != null) break;
+                    } catch (NoSuchMethodException ignored) {
+                    }
+                }
+            }
+
+            if (trackApi != null) {
+                trackedMethods.put(method, trackApi);
+            }
         }
+        return trackedMethods;
+    }
 
-        // Update repository with scanned APIs
-        updateRepositoryWithScannedApis(scannedApis);
+    /**
+     * Hashes signatures independently of their order, since reflection does not guarantee one.
+     */
+    private static String fingerprint(List<String> signatures) {
+        List<String> sorted = new ArrayList<>(signatures);
+        Collections.sort(sorted);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String signature : sorted) {
+                digest.update(signature.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     /**
      * Updates the repository with scanned API data.
+     * The repository keeps the check states of known APIs and takes ownership of the APIs it is given,
+     * so it receives copies and the scanned APIs can be reused by the next refresh.
      *
      * @param scannedApis Newly scanned API data.
      */
-    private void updateRepositoryWithScannedApis(Map<String, List<ApiInfo>> scannedApis) {
-        Map<String, List<ApiInfo>> existingApis = apiCheckRepository.getAllGroupedApis();
-
+    void updateRepositoryWithScannedApis(Map<String, List<ApiInfo>> scannedApis) {
         Map<String, List<ApiInfo>> updatedApis = new HashMap<>();
 
-        // Map of existing API states
-        Map<String, ApiInfo> existingApiMap = existingApis.values().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toMap(
-                        api -> api.getHttpMethod() + "_" + api.getPath(),
-                        api -> api
-                ));
-
-        // Merge new data with existing data
         scannedApis.forEach((groupName, scannedApiList) -> {
-            List<ApiInfo> finalApiList = new ArrayList<>();
-
+            List<ApiInfo> finalApiList = new ArrayList<>(scannedApiList.size());
             for (ApiInfo scannedApi : scannedApiList) {
-                String key = scannedApi.getHttpMethod() + "_" + scannedApi.getPath();
-
-                // Preserve check state if already exists
-                if (existingApiMap.containsKey(key)) {
-                    scannedApi.setChecked(existingApiMap.get(key).isChecked());
-                    scannedApi.setNickname(
-                            existingApiMap.get(key).isChecked()
-                                    ? existingApiMap.get(key).getNickname()
-                                    : "");
-                }
-
-                finalApiList.add(scannedApi);
+                finalApiList.add(new ApiInfo(scannedApi.getHttpMethod(), scannedApi.getPath(),
+                        scannedApi.getDescription(), "", false));
             }
-
             updatedApis.put(groupName, finalApiList);
         });
 
@@ -132,64 +396,50 @@ public class ApiScanner implements ApplicationListener<ContextRefreshedEvent> {
     }
 
     /**
-     * Detects HTTP method for a given method.
+     * Detects the HTTP methods of a mapping, including those of a plain @RequestMapping.
      *
-     * @param method The method to analyze.
-     * @return The HTTP method as a string.
+     * @param methodMapping The merged mapping of the method, or null.
+     * @return The HTTP methods, or "ALL" if the mapping does not restrict them.
      */
-    private String findHttpMethod(Method method) {
-        if (method.isAnnotationPresent(GetMapping.class)) return "GET";
-        if (method.isAnnotationPresent(PostMapping.class)) return "POST";
-        if (method.isAnnotationPresent(DeleteMapping.class)) return "DELETE";
-        if (method.isAnnotationPresent(PutMapping.class)) return "PUT";
-        if (method.isAnnotationPresent(PatchMapping.class)) return "PATCH";
-        return "UNKNOWN";
+    private List<String> findHttpMethods(RequestMapping methodMapping) {
+        if (methodMapping == null || methodMapping.method().length == 0) {
+            return List.of(ALL_METHODS);
+        }
+        return Arrays.stream(methodMapping.method()).map(RequestMethod::name).distinct().toList();
     }
 
     /**
-     * Retrieves the full path of an API method.
+     * Retrieves every full path of an API method.
      *
-     * @param beanClass The class containing the API.
-     * @param method    The method to analyze.
-     * @return The full API path as a string.
-     */
-    private String findPath(Class<?> beanClass, Method method) {
-        RequestMapping classMapping = AnnotationUtils.findAnnotation(beanClass, RequestMapping.class);
-        String basePath = (classMapping != null && classMapping.value().length > 0)
-                ? classMapping.value()[0]
-                : "";
-
-        if (method.isAnnotationPresent(GetMapping.class)) {
-            return combinePath(basePath, method.getAnnotation(GetMapping.class).value());
-        }
-
-        if (method.isAnnotationPresent(PostMapping.class)) {
-            return combinePath(basePath, method.getAnnotation(PostMapping.class).value());
-        }
-
-        if (method.isAnnotationPresent(DeleteMapping.class)) {
-            return combinePath(basePath, method.getAnnotation(DeleteMapping.class).value());
-        }
-
-        if (method.isAnnotationPresent(PutMapping.class)) {
-            return combinePath(basePath, method.getAnnotation(PutMapping.class).value());
-        }
-
-        if (method.isAnnotationPresent(PatchMapping.class)) {
-            return combinePath(basePath, method.getAnnotation(PatchMapping.class).value());
+     * @param classMapping  The merged mapping of the class, or null.
+     * @param methodMapping The merged mapping of the method, or null.
+     * @return Each base path combined with each method path.
+     */
+    private List<String> findPaths(RequestMapping classMapping, RequestMapping methodMapping) {
+        List<String> paths = new ArrayList<>();
+        for (String basePath : pathsOf(classMapping)) {
+            for (String path : pathsOf(methodMapping)) {
+                paths.add(basePath + path);
+            }
         }
+        return paths;
+    }
 
-        return basePath;
+    /**
+     * Returns the paths of a merged mapping, in which {@code value} and {@code path} are aliases.
+     */
+    private static String[] pathsOf(RequestMapping mapping) {
+        return mapping != null && mapping.path().length > 0 ? mapping.path() : new String[]{""};
     }
 
     /**
-     * Combines the base path and method-specific paths.
+     * Scan result of an @ApiGroup class.
      *
-     * @param basePath The base path.
-     * @param paths    The method-specific paths.
-     * @return The combined path as a string.
+     * @param beanClass   The scanned class.
+     * @param fingerprint Hash of the group, mappings and tracked method signatures of the class.
+     * @param groupName   Name of the group.
+     * @param apis        Scanned APIs, never handed to the repository directly.
      */
-    private String combinePath(String basePath, String[] paths) {
-        return basePath + (paths.length > 0 ? paths[0] : "");
+    private record ScannedGroup(Class<?> beanClass, String fingerprint, String groupName, List<ApiInfo> apis) {
     }
-}
\ No newline at end of file
+}
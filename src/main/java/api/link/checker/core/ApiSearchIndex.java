@@ -0,0 +1,256 @@
+package api.link.checker.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index over the tracked APIs, maintained by {@link ApiCheckRepository} while it holds
+ * the write lock and queried while it holds the read lock.
+ *
+ * Every API gets an ordinal in group order, so each group is a contiguous ordinal range.
+ * HTTP methods, the checked flag and nicknames map to bit sets of ordinals, and every lower-case
+ * bigram and trigram of "path description" maps to the sorted ordinals containing it. A query
+ * intersects the bit sets of its filters and checks free text only against the APIs of its rarest n-gram.
+ */
+final class ApiSearchIndex {
+
+    private final List<String> keys = new ArrayList<>();
+    private final List<String> groups = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<String, int[]> groupRanges = new LinkedHashMap<>();
+    private final Map<String, BitSet> byMethod = new HashMap<>();
+    private final Map<String, BitSet> byNickname = new HashMap<>();
+    private final Map<String, Postings> byGram = new HashMap<>();
+    private final BitSet checked = new BitSet();
+
+    /**
+     * Rebuilds the index from grouped API keys.
+     *
+     * @param groupIndex Ordered API keys of every group.
+     * @param apiIndex   APIs by key.
+     */
+    void rebuild(Map<String, List<String>> groupIndex, Map<String, ApiInfo> apiIndex) {
+        keys.clear();
+        groups.clear();
+        texts.clear();
+        ordinals.clear();
+        groupRanges.clear();
+        byMethod.clear();
+        byNickname.clear();
+        byGram.clear();
+        checked.clear();
+
+        groupIndex.forEach((groupName, groupKeys) -> {
+            int start = keys.size();
+            for (String key : groupKeys) {
+                ApiInfo apiInfo = apiIndex.get(key);
+                if (apiInfo != null) {
+                    add(groupName, key, apiInfo);
+                }
+            }
+            groupRanges.put(groupName, new int[]{start, keys.size()});
+        });
+    }
+
+    private void add(String groupName, String key, ApiInfo apiInfo) {
+        int ordinal = keys.size();
+        String text = normalize(apiInfo.getPath() + " " + (apiInfo.getDescription() != null ? apiInfo.getDescription() : ""));
+
+        keys.add(key);
+        groups.add(groupName);
+        texts.add(text);
+        ordinals.put(key, ordinal);
+        byMethod.computeIfAbsent(apiInfo.getHttpMethod().toUpperCase(Locale.ROOT), m -> new BitSet()).set(ordinal);
+        setCheckState(ordinal, apiInfo);
+
+        for (int i = 0; i + 2 <= text.length(); i++) {
+            addGram(text.substring(i, i + 2), ordinal);
+            if (i + 3 <= text.length()) {
+                addGram(text.substring(i, i + 3), ordinal);
+            }
+        }
+    }
+
+    private void addGram(String gram, int ordinal) {
+        Postings postings = byGram.computeIfAbsent(gram, g -> new Postings());
+        if (postings.last() != ordinal) { // An n-gram can repeat within one text
+            postings.add(ordinal);
+        }
+    }
+
+    /**
+     * Updates the check state of an API after a change.
+     *
+     * @param key              Key of the API.
+     * @param previousNickname Nickname before the change.
+     * @param apiInfo          The changed API.
+     */
+    void update(String key, String previousNickname, ApiInfo apiInfo) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal == null) {
+            return; // Added by the next rebuild
+        }
+
+        if (previousNickname != null && !previousNickname.isEmpty()) {
+            BitSet nicknameSet = byNickname.get(normalize(previousNickname));
+            if (nicknameSet != null) {
+                nicknameSet.clear(ordinal);
+            }
+        }
+        setCheckState(ordinal, apiInfo);
+    }
+
+    private void setCheckState(int ordinal, ApiInfo apiInfo) {
+        checked.set(ordinal, apiInfo.isChecked());
+        if (apiInfo.getNickname() != null && !apiInfo.getNickname().isEmpty()) {
+            byNickname.computeIfAbsent(normalize(apiInfo.getNickname()), n -> new BitSet()).set(ordinal);
+        }
+    }
+
+    /**
+     * Finds the APIs matching a query.
+     *
+     * @param query       Filters of the query; null or blank filters match everything.
+     * @param fromOrdinal First ordinal of the page.
+     * @param limit       Maximum number of keys in the page.
+     * @return The page of matching keys, the total and the number of matches per group.
+     */
+    Page query(ApiQuery query, int fromOrdinal, int limit) {
+        BitSet matches = new BitSet(keys.size());
+        matches.set(0, keys.size());
+
+        if (isSet(query.httpMethod())) {
+            matches.and(byMethod.getOrDefault(query.httpMethod().trim().toUpperCase(Locale.ROOT), new BitSet()));
+        }
+        if (query.checked() != null) {
+            if (query.checked()) {
+                matches.and(checked);
+            } else {
+                matches.andNot(checked);
+            }
+        }
+        if (isSet(query.nickname())) {
+            matches.and(byNickname.getOrDefault(normalize(query.nickname().trim()), new BitSet()));
+        }
+        if (isSet(query.text())) {
+            filterText(matches, normalize(query.text().trim()));
+        }
+
+        // Group counts ignore the group filter, so they show where else the query matches
+        Map<String, Integer> groupCounts = new LinkedHashMap<>();
+        groupRanges.forEach((groupName, range) -> groupCounts.put(groupName, count(matches, range[0], range[1])));
+
+        int start = 0;
+        int end = keys.size();
+        if (isSet(query.group())) {
+            int[] range = groupRanges.getOrDefault(query.group(), new int[]{0, 0});
+            start = range[0];
+            end = range[1];
+        }
+
+        List<String> pageKeys = new ArrayList<>(Math.min(limit, 256));
+        List<String> pageGroups = new ArrayList<>(Math.min(limit, 256));
+        int ordinal = matches.nextSetBit(Math.max(start, fromOrdinal));
+        while (ordinal >= 0 && ordinal < end && pageKeys.size() < limit) {
+            pageKeys.add(keys.get(ordinal));
+            pageGroups.add(groups.get(ordinal));
+            ordinal = matches.nextSetBit(ordinal + 1);
+        }
+
+        int nextOrdinal = ordinal >= 0 && ordinal < end ? ordinal : -1;
+        return new Page(count(matches, start, end), groupCounts, pageKeys, pageGroups, nextOrdinal);
+    }
+
+    /**
+     * Keeps only the matches whose path or description contains the text.
+     */
+    private void filterText(BitSet matches, String needle) {
+        if (needle.length() < 2) {
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                if (!texts.get(i).contains(needle)) {
+                    matches.clear(i);
+                }
+            }
+            return;
+        }
+
+        // Every match contains all n-grams of the text, so the rarest one bounds the candidates
+        int gramLength = Math.min(needle.length(), 3);
+        Postings rarest = null;
+        for (int i = 0; i + gramLength <= needle.length(); i++) {
+            Postings postings = byGram.get(needle.substring(i, i + gramLength));
+            if (postings == null) {
+                matches.clear();
+                return;
+            }
+            if (rarest == null || postings.size < rarest.size) {
+                rarest = postings;
+            }
+        }
+
+        boolean exact = gramLength == needle.length(); // The postings of the text itself need no check
+        BitSet candidates = new BitSet(keys.size());
+        for (int i = 0; i < rarest.size; i++) {
+            int ordinal = rarest.ordinals[i];
+            if (matches.get(ordinal) && (exact || texts.get(ordinal).contains(needle))) {
+                candidates.set(ordinal);
+            }
+        }
+        matches.and(candidates);
+    }
+
+    private static int count(BitSet bits, int start, int end) {
+        int count = 0;
+        for (int i = bits.nextSetBit(start); i >= 0 && i < end; i = bits.nextSetBit(i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A page of query results.
+     *
+     * @param total       Number of matches, within the queried group if any.
+     * @param groupCounts Number of matches per group, ignoring the group filter.
+     * @param keys        Keys of the matches in the page.
+     * @param groups      Group of each match in the page.
+     * @param nextOrdinal First ordinal of the next page, or -1 if this is the last page.
+     */
+    record Page(int total, Map<String, Integer> groupCounts, List<String> keys, List<String> groups, int nextOrdinal) {
+    }
+
+    /**
+     * Growable sorted list of ordinals.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(ordinals, 0, grown, 0, size);
+                ordinals = grown;
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        private int last() {
+            return size > 0 ? ordinals[size - 1] : -1;
+        }
+    }
+}
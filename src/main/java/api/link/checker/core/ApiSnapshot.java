@@ -0,0 +1,53 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of all grouped APIs at one repository version.
+ * The JSON form is serialized once on first use and reused until the next version is published.
+ */
+public final class ApiSnapshot {
+    private final long version;
+    private final Map<String, List<ApiInfo>> groups;
+    private final ObjectMapper objectMapper;
+    private volatile byte[] json;
+
+    ApiSnapshot(long version, Map<String, List<ApiInfo>> groups, ObjectMapper objectMapper) {
+        this.version = version;
+        this.groups = groups;
+        this.objectMapper = objectMapper;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the grouped APIs of this version.
+     * The map and lists are unmodifiable and the APIs are shared, so they must not be modified.
+     *
+     * @return Map of grouped APIs.
+     */
+    public Map<String, List<ApiInfo>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Returns the grouped APIs serialized as JSON.
+     *
+     * @return The JSON bytes, shared by all callers.
+     * @throws JsonProcessingException If the APIs cannot be serialized.
+     */
+    public byte[] toJson() throws JsonProcessingException {
+        byte[] bytes = json;
+        if (bytes == null) {
+            bytes = objectMapper.writeValueAsBytes(groups);
+            json = bytes;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,13 @@
+package api.link.checker.core;
+
+/**
+ * A single check state change, as written to the check-state journal.
+ *
+ * @param httpMethod HTTP method of the API.
+ * @param path       Path of the API.
+ * @param nickname   Nickname of the user who changed the state.
+ * @param checked    New check status.
+ * @param timestamp  Time of the change in epoch milliseconds.
+ */
+public record CheckRecord(String httpMethod, String path, String nickname, boolean checked, long timestamp) {
+}
@@ -0,0 +1,240 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Persists check states as a snapshot file plus an append-only journal.
+ *
+ * Every check change is appended to the journal as one JSON line.
+ * Compaction rotates the journal aside, writes a new snapshot to a temporary file,
+ * atomically renames it over the old snapshot and then drops the rotated journal.
+ * On startup the snapshot is loaded and the rotated and current journals are replayed on top of it.
+ */
+class CheckStateJournal implements CheckStateStore {
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path compactingPath;
+    private final Path tempPath;
+    private final Object snapshotMonitor = new Object();
+
+    private FileChannel journalChannel;
+    private int pendingRecords;
+
+    /**
+     * Constructor resolves the journal files next to the snapshot file.
+     *
+     * @param objectMapper Object mapper used for the snapshot and the journal lines.
+     * @param filePath     File path of the snapshot.
+     */
+    CheckStateJournal(ObjectMapper objectMapper, String filePath) {
+        this.objectMapper = objectMapper;
+        this.snapshotPath = Path.of(filePath).toAbsolutePath();
+        this.journalPath = Path.of(filePath + ".journal").toAbsolutePath();
+        this.compactingPath = Path.of(filePath + ".journal.compacting").toAbsolutePath();
+        this.tempPath = Path.of(filePath + ".tmp").toAbsolutePath();
+    }
+
+    @Override
+    public Map<String, List<ApiInfo>> readSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return Map.of();
+        }
+        return objectMapper.readValue(snapshotPath.toFile(), new TypeReference<>() {
+        });
+    }
+
+    @Override
+    public long storedSize() {
+        try {
+            return Files.exists(snapshotPath) ? Files.size(snapshotPath) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Replays the rotated journal and then the current journal in write order.
+     * Lines that cannot be parsed, such as a torn last line after a crash, are skipped.
+     */
+    @Override
+    public synchronized int replay(Consumer<CheckRecord> consumer) {
+        int replayed = replayFile(compactingPath, consumer) + replayFile(journalPath, consumer);
+        pendingRecords += replayed;
+        return replayed;
+    }
+
+    private int replayFile(Path path, Consumer<CheckRecord> consumer) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        int replayed = 0;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    consumer.accept(objectMapper.readValue(line, CheckRecord.class));
+                    replayed++;
+                } catch (IOException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to replay API check journal " + path + ": " + e.getMessage());
+        }
+
+        if (skipped > 0) {
+            System.err.println("Skipped " + skipped + " unreadable records in API check journal " + path);
+        }
+        return replayed;
+    }
+
+    /**
+     * Appends records to the journal in a single write.
+     */
+    @Override
+    public synchronized void append(List<CheckRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder(records.size() * 128);
+        for (CheckRecord record : records) {
+            lines.append(objectMapper.writeValueAsString(record)).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        FileChannel channel = journalChannel();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        pendingRecords += records.size();
+    }
+
+    @Override
+    public synchronized int pendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Rotates the journal and writes the captured snapshot; new records go to a fresh journal meanwhile.
+     * The rotated records stay pending until the snapshot is written, so a failed compaction is retried.
+     */
+    @Override
+    public long compact(Supplier<ApiSnapshot> capture) throws IOException {
+        int rotated = rotate();
+        long size = writeSnapshot(capture.get());
+        synchronized (this) {
+            pendingRecords -= rotated;
+        }
+        return size;
+    }
+
+    /**
+     * Moves the current journal aside so that new records go to a fresh journal.
+     *
+     * @return Number of pending records that were rotated.
+     */
+    private synchronized int rotate() throws IOException {
+        closeChannel();
+        int rotated = pendingRecords;
+
+        if (!Files.exists(journalPath)) {
+            return rotated;
+        }
+
+        if (Files.exists(compactingPath)) {
+            // A previous compaction did not finish, keep its records in front of the new ones.
+            try (OutputStream out = Files.newOutputStream(compactingPath, StandardOpenOption.APPEND)) {
+                Files.copy(journalPath, out);
+            }
+            Files.delete(journalPath);
+        } else {
+            Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return rotated;
+    }
+
+    /**
+     * Writes a snapshot atomically and drops the rotated journal it replaces.
+     */
+    long writeSnapshot(ApiSnapshot snapshot) throws IOException {
+        byte[] json = snapshot.toJson();
+        synchronized (snapshotMonitor) {
+            writeAtomically(snapshotPath, tempPath, json);
+            Files.deleteIfExists(compactingPath);
+        }
+        return json.length;
+    }
+
+    /**
+     * Writes a file through a temporary file that is forced to disk and then renamed over the target.
+     *
+     * @param target   File to write.
+     * @param tempPath Temporary file next to the target.
+     * @param bytes    Content of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeAtomically(Path target, Path tempPath, byte[] bytes) throws IOException {
+        Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(tempPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempPath, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    private FileChannel journalChannel() throws IOException {
+        if (journalChannel == null || !journalChannel.isOpen()) {
+            Path parent = journalPath.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            journalChannel = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return journalChannel;
+    }
+
+    private void closeChannel() {
+        if (journalChannel != null) {
+            try {
+                journalChannel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close API check journal: " + e.getMessage());
+            }
+            journalChannel = null;
+        }
+    }
+}
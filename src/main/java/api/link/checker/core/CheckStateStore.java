@@ -0,0 +1,94 @@
+package api.link.checker.core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Storage backend for check states, selected by {@code api.checker.storage.type}.
+ *
+ * The repository loads the snapshot, replays the stored records on top of it and appends every
+ * change as a record. Backends that accumulate records are compacted by rotating them aside
+ * and writing a new snapshot in a single {@link #compact} call. Backends shared between processes also report the records
+ * that other processes append.
+ */
+interface CheckStateStore {
+
+    /**
+     * Reads the last snapshot of grouped APIs.
+     *
+     * @return Map of grouped APIs, or an empty map if the backend keeps no snapshot.
+     * @throws IOException If the snapshot exists but cannot be read.
+     */
+    Map<String, List<ApiInfo>> readSnapshot() throws IOException;
+
+    /**
+     * Replays the stored check records in write order.
+     *
+     * @param consumer Receives every stored record.
+     * @return Number of replayed records.
+     */
+    int replay(Consumer<CheckRecord> consumer);
+
+    /**
+     * Stores check records.
+     *
+     * @param records Records to store.
+     * @throws IOException If the records cannot be written.
+     */
+    void append(List<CheckRecord> records) throws IOException;
+
+    /**
+     * Returns the number of records that are not yet folded into a snapshot.
+     *
+     * @return Number of pending records, always 0 for backends that need no compaction.
+     */
+    int pendingRecords();
+
+    /**
+     * Moves the pending records aside, takes the snapshot from the caller, writes it and drops the
+     * records it replaces. Locks taken by the store are released before this method returns or throws.
+     * Must be called while the caller holds the state that the snapshot is taken from; the caller
+     * may release it in {@code capture}, which is called once unless rotating fails.
+     *
+     * @param capture Returns the snapshot to store.
+     * @return Size of the stored data in bytes, or -1 if a shared store skipped the compaction because
+     * another process holds its files; {@code capture} is not called then.
+     * @throws IOException If the records cannot be rotated or the snapshot cannot be written.
+     */
+    long compact(Supplier<ApiSnapshot> capture) throws IOException;
+
+    /**
+     * Registers a listener that is called when other processes may have written records.
+     * Only stores shared between processes call it; the listener then calls {@link #poll}.
+     *
+     * @param listener Called from a background thread of the store.
+     */
+    default void watch(Runnable listener) {
+    }
+
+    /**
+     * Reads the records that other processes wrote since the last replay or poll.
+     * Must be called while the caller holds the state the records are applied to.
+     *
+     * @param consumer Receives every new record of other processes.
+     * @return Number of records passed to the consumer.
+     */
+    default int poll(Consumer<CheckRecord> consumer) {
+        return 0;
+    }
+
+    /**
+     * Returns the size of the stored data.
+     *
+     * @return Size in bytes, or 0 if nothing is stored yet.
+     */
+    long storedSize();
+
+    /**
+     * Releases the files of the backend.
+     */
+    void close();
+}
@@ -0,0 +1,12 @@
+package api.link.checker.core;
+
+/**
+ * A requested check state change of a single API.
+ *
+ * @param httpMethod HTTP method of the API.
+ * @param path       Path of the API.
+ * @param checked    New check status.
+ * @param nickname   Nickname of the user who changes the state.
+ */
+public record CheckUpdate(String httpMethod, String path, boolean checked, String nickname) {
+}
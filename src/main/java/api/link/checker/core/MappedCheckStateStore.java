@@ -0,0 +1,275 @@
+package api.link.checker.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Persists check states as fixed-size records in a memory-mapped file.
+ *
+ * Every API key owns one record slot, found through an in-memory key to slot index that is
+ * rebuilt from the file on startup. A check change overwrites the checked flag, nickname and
+ * timestamp of its slot in place, so nothing needs to be compacted. The groups themselves are
+ * not stored: they are rebuilt by the next scan, and the stored states are applied to them then.
+ * Slots of removed APIs are kept, so their state returns if the API comes back.
+ *
+ * File layout: a header ({@code magic, format version, record size, slot count}) followed by
+ * {@code slot count} records of {@value #RECORD_SIZE} bytes
+ * ({@code flags, timestamp, key length, key, nickname length, nickname}).
+ */
+class MappedCheckStateStore implements CheckStateStore {
+    private static final int MAGIC = 0x414C4353; // "ALCS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 512;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final int KEY_CAPACITY = 384;
+    private static final int NICKNAME_CAPACITY = 112;
+    private static final int FLAGS_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 1;
+    private static final int KEY_OFFSET = 9; // Length as short, then the key bytes
+    private static final int NICKNAME_OFFSET = KEY_OFFSET + 2 + KEY_CAPACITY; // Length as short, then the nickname bytes
+
+    private static final byte USED = 1;
+    private static final byte CHECKED = 2;
+
+    private final Path path;
+    private final boolean forceOnWrite;
+    private final Map<String, Integer> slotIndex = new HashMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int slotCount;
+    private int usedSlots;
+
+    /**
+     * Constructor resolves the mapped file next to the configured storage file.
+     *
+     * @param filePath     Configured storage file path; the records are kept in "{filePath}.mapped".
+     * @param forceOnWrite Whether every write is forced to the storage device before returning.
+     */
+    MappedCheckStateStore(String filePath, boolean forceOnWrite) {
+        this.path = Path.of(filePath + ".mapped").toAbsolutePath();
+        this.forceOnWrite = forceOnWrite;
+    }
+
+    @Override
+    public Map<String, List<ApiInfo>> readSnapshot() {
+        return Map.of();
+    }
+
+    /**
+     * Maps the file and emits the state of every used slot.
+     */
+    @Override
+    public synchronized int replay(Consumer<CheckRecord> consumer) {
+        try {
+            open();
+        } catch (IOException e) {
+            System.err.println("Failed to map API check store " + path + ": " + e.getMessage());
+            return 0;
+        }
+
+        int replayed = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = recordOffset(slot);
+            byte flags = buffer.get(offset + FLAGS_OFFSET);
+            if ((flags & USED) == 0) continue;
+            usedSlots = slot + 1;
+
+            String key = readString(offset + KEY_OFFSET, KEY_CAPACITY);
+            int separator = key.indexOf('_');
+            if (separator < 0) continue;
+
+            slotIndex.put(key, slot);
+            consumer.accept(new CheckRecord(key.substring(0, separator), key.substring(separator + 1),
+                    readString(offset + NICKNAME_OFFSET, NICKNAME_CAPACITY),
+                    (flags & CHECKED) != 0,
+                    buffer.getLong(offset + TIMESTAMP_OFFSET)));
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /**
+     * Overwrites the slots of the records in place, assigning a new slot to unknown keys.
+     * Records whose key does not fit into a slot are skipped.
+     */
+    @Override
+    public synchronized void append(List<CheckRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        open();
+
+        for (CheckRecord record : records) {
+            String key = ApiKeys.of(record.httpMethod(), record.path());
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length > KEY_CAPACITY) {
+                System.err.println("API key is too long for the API check store: " + key);
+                continue;
+            }
+
+            Integer slot = slotIndex.get(key);
+            if (slot == null) {
+                slot = usedSlots++;
+                if (slot >= slotCount) {
+                    grow();
+                }
+                writeBytes(recordOffset(slot) + KEY_OFFSET, keyBytes);
+                slotIndex.put(key, slot);
+            }
+
+            int offset = recordOffset(slot);
+            String nickname = record.nickname() != null ? record.nickname() : "";
+            writeBytes(offset + NICKNAME_OFFSET, truncate(nickname.getBytes(StandardCharsets.UTF_8)));
+            buffer.putLong(offset + TIMESTAMP_OFFSET, record.timestamp());
+            // Flags go last, so a slot becomes used only once its key is written
+            buffer.put(offset + FLAGS_OFFSET, (byte) (USED | (record.checked() ? CHECKED : 0)));
+        }
+
+        if (forceOnWrite) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public int pendingRecords() {
+        return 0; // Records are written in place
+    }
+
+    /**
+     * Forces the mapped records to the storage device. There is nothing to rotate and the snapshot itself is not stored.
+     */
+    @Override
+    public long compact(Supplier<ApiSnapshot> capture) throws IOException {
+        capture.get();
+        return force();
+    }
+
+    private synchronized long force() throws IOException {
+        open();
+        buffer.force();
+        return channel.size();
+    }
+
+    @Override
+    public long storedSize() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close API check store: " + e.getMessage());
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    /**
+     * Opens and maps the file, creating it if it does not exist.
+     * A file with an unknown header is replaced by an empty one.
+     */
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            int storedSlots = header.getInt(12);
+            if (header.getInt(0) == MAGIC && header.getInt(4) == FORMAT_VERSION && header.getInt(8) == RECORD_SIZE
+                    && storedSlots > 0 && channel.size() >= fileSize(storedSlots)) {
+                map(storedSlots);
+                return;
+            }
+            System.err.println("Ignoring unreadable API check store " + path);
+        }
+
+        channel.truncate(0);
+        map(INITIAL_SLOTS);
+    }
+
+    /**
+     * Doubles the number of slots and maps the larger file.
+     */
+    private void grow() throws IOException {
+        buffer.force();
+        map(slotCount * 2);
+    }
+
+    private void map(int slots) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(slots));
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, slots);
+        slotCount = slots;
+    }
+
+    private static long fileSize(int slots) {
+        return HEADER_SIZE + (long) slots * RECORD_SIZE;
+    }
+
+    private static int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private void writeBytes(int offset, byte[] bytes) {
+        buffer.putShort(offset, (short) bytes.length);
+        buffer.put(offset + 2, bytes);
+    }
+
+    private String readString(int offset, int capacity) {
+        int length = Math.min(Math.max(buffer.getShort(offset), 0), capacity);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Cuts a nickname to the slot capacity without splitting a UTF-8 character.
+     */
+    private static byte[] truncate(byte[] bytes) {
+        if (bytes.length <= NICKNAME_CAPACITY) {
+            return bytes;
+        }
+        int length = NICKNAME_CAPACITY;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+}
@@ -0,0 +1,135 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Extracts operations from an OpenAPI document with a streaming parser.
+ *
+ * Only {@code paths.*.*.{operationId,tags}} is read; every other subtree, such as
+ * schemas, examples and components, is skipped token by token without being materialized.
+ */
+class OpenApiOperationExtractor {
+
+    private static final Set<String> HTTP_METHODS = Set.of(
+            "get", "put", "post", "delete", "options", "head", "patch", "trace");
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Constructor with the factory used to create parsers.
+     *
+     * @param jsonFactory Factory for JSON parsers.
+     */
+    OpenApiOperationExtractor(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Extracts all operations of an OpenAPI document.
+     *
+     * @param body The OpenAPI document.
+     * @return The operations in document order.
+     * @throws IOException If the document cannot be read.
+     */
+    List<SwaggerOperation> extract(InputStream body) throws IOException {
+        List<SwaggerOperation> operations = new ArrayList<>();
+        extract(body, operations::add);
+        return operations;
+    }
+
+    /**
+     * Extracts all operations of an OpenAPI document and hands them to a consumer as they are read.
+     *
+     * @param body     The OpenAPI document.
+     * @param consumer Receives every operation.
+     * @throws IOException If the document cannot be read.
+     */
+    void extract(InputStream body, Consumer<SwaggerOperation> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("OpenAPI document is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("paths".equals(field) && value == JsonToken.START_OBJECT) {
+                    readPaths(parser, consumer);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readPaths(JsonParser parser, Consumer<SwaggerOperation> consumer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String path = parser.currentName();
+
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                readPathItem(parser, path, consumer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readPathItem(JsonParser parser, String path, Consumer<SwaggerOperation> consumer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String method = parser.currentName();
+
+            // Skip path-level entries such as "parameters", "summary" or "servers"
+            if (parser.nextToken() == JsonToken.START_OBJECT && HTTP_METHODS.contains(method)) {
+                consumer.accept(readOperation(parser, method.toUpperCase(), path));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private SwaggerOperation readOperation(JsonParser parser, String httpMethod, String path) throws IOException {
+        String operationId = null;
+        String tag = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            if ("operationId".equals(field) && value == JsonToken.VALUE_STRING) {
+                operationId = parser.getText();
+            } else if ("tags".equals(field) && value == JsonToken.START_ARRAY) {
+                tag = readFirstTag(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new SwaggerOperation(httpMethod, path, tag != null ? tag : "NoTag", operationId);
+    }
+
+    private String readFirstTag(JsonParser parser) throws IOException {
+        String tag = null;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of OpenAPI document");
+            }
+            if (tag == null && token == JsonToken.VALUE_STRING) {
+                tag = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return tag;
+    }
+}
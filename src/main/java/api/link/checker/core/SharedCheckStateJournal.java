@@ -0,0 +1,480 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Persists check states as a snapshot file plus a journal shared by several instances on a common volume.
+ *
+ * Every instance appends its records to the same journal under an exclusive {@link FileLock}
+ * and remembers how far it has read. A watcher thread waits for changes of the journal with a
+ * {@link WatchService}, falling back to a poll interval for file systems that report no events,
+ * and the repository then reads only the records appended by other instances since its offset.
+ * A record of another instance is skipped if this instance wrote the same API later in the journal,
+ * so every instance ends up with the journal order.
+ *
+ * Compaction takes the exclusive lock, writes the snapshot and truncates the journal to a header
+ * line with a new generation. An instance that finds a new generation missed the compacted records,
+ * so it reads the snapshot and the new journal from the start. Every instance counts only its own
+ * appends as pending, so the journal is compacted as often as with a single instance, and skips
+ * compaction while another instance holds the lock instead of waiting for it.
+ */
+class SharedCheckStateJournal implements CheckStateStore {
+    private static final String GENERATION_PREFIX = "# generation ";
+
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path lockPath;
+    private final Path tempPath;
+    private final long pollIntervalMs;
+    private final ReentrantLock fileMutex = new ReentrantLock(); // File locks are held per process, not per thread
+    private final NavigableMap<Long, Long> ownWrites = new TreeMap<>(); // Start and end of own appends
+    private final Map<String, Long> ownKeyPositions = new HashMap<>(); // Last own append per API key
+    private final ExecutorService watcher;
+
+    private FileChannel lockChannel;
+    private FileChannel journalChannel;
+    private FileLock compactionLock;
+    private String generation;
+    private long offset;
+    private int pendingRecords;
+    private volatile boolean closed;
+
+    /**
+     * Constructor resolves the shared files next to the snapshot file.
+     *
+     * @param objectMapper   Object mapper used for the snapshot and the journal lines.
+     * @param filePath       File path of the snapshot on the shared volume.
+     * @param pollIntervalMs Longest time between two checks of the journal.
+     */
+    SharedCheckStateJournal(ObjectMapper objectMapper, String filePath, long pollIntervalMs) {
+        this.objectMapper = objectMapper;
+        this.snapshotPath = Path.of(filePath).toAbsolutePath();
+        this.journalPath = Path.of(filePath + ".journal").toAbsolutePath();
+        this.lockPath = Path.of(filePath + ".lock").toAbsolutePath();
+        this.tempPath = Path.of(filePath + ".tmp").toAbsolutePath();
+        this.pollIntervalMs = pollIntervalMs;
+        this.watcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-checker-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the snapshot and remembers the journal generation it belongs to.
+     */
+    @Override
+    public Map<String, List<ApiInfo>> readSnapshot() throws IOException {
+        fileMutex.lock();
+        try (FileLock lock = lockChannel().lock(0, Long.MAX_VALUE, true)) {
+            String current = readGeneration();
+            generation = current != null ? current : ""; // A journal created later may follow a newer snapshot
+            return readSnapshotFile();
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    @Override
+    public int replay(Consumer<CheckRecord> consumer) {
+        return poll(consumer);
+    }
+
+    /**
+     * Reads the records appended by other instances since the last poll.
+     * If another instance compacted the journal meanwhile, the snapshot is read first.
+     */
+    @Override
+    public int poll(Consumer<CheckRecord> consumer) {
+        fileMutex.lock();
+        try {
+            FileLock lock = compactionLock == null ? lockChannel().lock(0, Long.MAX_VALUE, true) : null;
+            try {
+                return readJournal(consumer);
+            } finally {
+                if (lock != null) {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read shared API check journal: " + e.getMessage());
+            return 0;
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    /**
+     * Appends records to the end of the journal in a single write under the exclusive lock.
+     */
+    @Override
+    public void append(List<CheckRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        fileMutex.lock();
+        try {
+            FileLock lock = compactionLock == null ? lockChannel().lock() : null;
+            try {
+                FileChannel channel = journalChannel();
+                long start = channel.size();
+                StringBuilder lines = new StringBuilder(records.size() * 128);
+                if (start == 0) {
+                    // First record of the journal
+                    String header = GENERATION_PREFIX + UUID.randomUUID() + "\n";
+                    lines.append(header);
+                    generation = header.substring(GENERATION_PREFIX.length(), header.length() - 1);
+                    offset = header.getBytes(StandardCharsets.UTF_8).length;
+                }
+
+                long recordStart = start + lines.toString().getBytes(StandardCharsets.UTF_8).length;
+                for (CheckRecord record : records) {
+                    lines.append(objectMapper.writeValueAsString(record)).append('\n');
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                long position = start;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+
+                ownWrites.put(recordStart, position);
+                for (CheckRecord record : records) {
+                    ownKeyPositions.put(ApiKeys.of(record.httpMethod(), record.path()), recordStart);
+                }
+                pendingRecords += records.size();
+            } finally {
+                if (lock != null) {
+                    lock.release();
+                }
+            }
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    @Override
+    public int pendingRecords() {
+        fileMutex.lock();
+        try {
+            return pendingRecords;
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    /**
+     * Takes the exclusive lock, captures the snapshot, writes it and starts a new journal generation.
+     * The capture must {@link #poll}, so that the snapshot contains every record of the journal.
+     * Both locks are held until the journal is truncated and released even if the capture throws,
+     * so appends of this and other instances wait for the snapshot but never hang on a failed compaction.
+     * The caller holds its own lock already, so the exclusive lock is only tried: if another instance
+     * holds it, this cycle is skipped and the records stay pending for the next one.
+     */
+    @Override
+    public long compact(Supplier<ApiSnapshot> capture) throws IOException {
+        fileMutex.lock();
+        try {
+            compactionLock = lockChannel().tryLock();
+            if (compactionLock == null) {
+                return -1; // Another instance is appending or compacting
+            }
+            try {
+                return writeSnapshot(capture.get());
+            } finally {
+                try {
+                    compactionLock.release();
+                } finally {
+                    compactionLock = null;
+                }
+            }
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    /**
+     * Writes the snapshot and starts a new journal generation. Must be called while holding the exclusive lock.
+     */
+    private long writeSnapshot(ApiSnapshot snapshot) throws IOException {
+        byte[] json = snapshot.toJson();
+        CheckStateJournal.writeAtomically(snapshotPath, tempPath, json);
+
+        String newGeneration = UUID.randomUUID().toString();
+        ByteBuffer header = ByteBuffer.wrap((GENERATION_PREFIX + newGeneration + "\n").getBytes(StandardCharsets.UTF_8));
+        FileChannel channel = journalChannel();
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(false);
+
+        generation = newGeneration;
+        offset = header.limit();
+        ownWrites.clear();
+        ownKeyPositions.clear();
+        pendingRecords = 0;
+        return json.length;
+    }
+
+    /**
+     * Starts the watcher thread.
+     */
+    @Override
+    public void watch(Runnable listener) {
+        watcher.execute(() -> watchJournal(listener));
+    }
+
+    @Override
+    public long storedSize() {
+        try {
+            return Files.exists(snapshotPath) ? Files.size(snapshotPath) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        watcher.shutdownNow();
+
+        fileMutex.lock();
+        try {
+            closeChannel(journalChannel);
+            closeChannel(lockChannel);
+            journalChannel = null;
+            lockChannel = null;
+        } finally {
+            fileMutex.unlock();
+        }
+    }
+
+    /**
+     * Calls the listener whenever the size or modification time of the journal changes.
+     * Changes are checked on every watch event and at least once per poll interval.
+     */
+    private void watchJournal(Runnable listener) {
+        WatchService watchService = null;
+        try {
+            Files.createDirectories(journalPath.getParent());
+            watchService = journalPath.getFileSystem().newWatchService();
+            journalPath.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Failed to watch shared API check journal, polling instead: " + e.getMessage());
+        }
+
+        long lastSize = -1;
+        long lastModified = -1;
+        try {
+            while (!closed) {
+                if (watchService != null) {
+                    WatchKey key = watchService.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(pollIntervalMs);
+                }
+
+                long size = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+                long modified = Files.exists(journalPath) ? Files.getLastModifiedTime(journalPath).toMillis() : 0;
+                if (size != lastSize || modified != lastModified) {
+                    lastSize = size;
+                    lastModified = modified;
+                    listener.run();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Stopped watching shared API check journal: " + e.getMessage());
+        } finally {
+            closeQuietly(watchService);
+        }
+    }
+
+    /**
+     * Reads the journal from the offset of this instance. Must be called while holding a file lock.
+     */
+    private int readJournal(Consumer<CheckRecord> consumer) throws IOException {
+        String current = readGeneration();
+        if (current == null) {
+            return 0; // No journal yet
+        }
+
+        int read = 0;
+        if (!current.equals(generation)) {
+            if (generation != null) {
+                // Another instance compacted the journal, its snapshot contains the records we missed
+                read += readSnapshotRecords(consumer);
+            }
+            generation = current;
+            offset = 0;
+            ownWrites.clear();
+            ownKeyPositions.clear();
+            pendingRecords = 0;
+        }
+
+        FileChannel channel = journalChannel();
+        long size = channel.size();
+        if (size <= offset) {
+            return read;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - offset, Integer.MAX_VALUE - 8));
+        while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+            // Read until the buffer is full
+        }
+
+        byte[] bytes = buffer.array();
+        int lineStart = 0;
+        for (int i = 0; i < buffer.position(); i++) {
+            if (bytes[i] != '\n') continue;
+
+            long position = offset + lineStart;
+            String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            lineStart = i + 1;
+            if (line.isBlank() || line.startsWith("#") || isOwnWrite(position)) continue;
+
+            CheckRecord record;
+            try {
+                record = objectMapper.readValue(line, CheckRecord.class);
+            } catch (IOException e) {
+                continue; // Skip unreadable lines like the journal does
+            }
+
+            Long ownPosition = ownKeyPositions.get(ApiKeys.of(record.httpMethod(), record.path()));
+            if (ownPosition != null && ownPosition > position) continue; // Superseded by a later own write
+
+            consumer.accept(record);
+            read++;
+        }
+
+        // A torn last line is read again once it is complete
+        offset += lineStart;
+        ownWrites.headMap(offset).clear();
+        ownKeyPositions.values().removeIf(position -> position < offset);
+        return read;
+    }
+
+    private boolean isOwnWrite(long position) {
+        Map.Entry<Long, Long> write = ownWrites.floorEntry(position);
+        return write != null && position < write.getValue();
+    }
+
+    /**
+     * Passes the state of every API in the snapshot to the consumer as a record.
+     */
+    private int readSnapshotRecords(Consumer<CheckRecord> consumer) throws IOException {
+        int read = 0;
+        for (List<ApiInfo> apiList : readSnapshotFile().values()) {
+            for (ApiInfo apiInfo : apiList) {
+                consumer.accept(new CheckRecord(apiInfo.getHttpMethod(), apiInfo.getPath(),
+                        apiInfo.getNickname(), apiInfo.isChecked(), 0));
+                read++;
+            }
+        }
+        return read;
+    }
+
+    private Map<String, List<ApiInfo>> readSnapshotFile() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return Map.of();
+        }
+        return objectMapper.readValue(snapshotPath.toFile(), new TypeReference<>() {
+        });
+    }
+
+    /**
+     * Reads the generation from the header line of the journal.
+     *
+     * @return The generation, an empty string for a journal without header, or null if the journal is empty.
+     */
+    private String readGeneration() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return null;
+        }
+
+        FileChannel channel = journalChannel();
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        channel.read(buffer, 0);
+        if (buffer.position() == 0) {
+            return null;
+        }
+
+        String head = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        int end = head.indexOf('\n');
+        if (!head.startsWith(GENERATION_PREFIX) || end < 0) {
+            return "";
+        }
+        return head.substring(GENERATION_PREFIX.length(), end);
+    }
+
+    private FileChannel lockChannel() throws IOException {
+        if (lockChannel == null || !lockChannel.isOpen()) {
+            Files.createDirectories(lockPath.getParent());
+            lockChannel = FileChannel.open(lockPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return lockChannel;
+    }
+
+    private FileChannel journalChannel() throws IOException {
+        if (journalChannel == null || !journalChannel.isOpen()) {
+            Files.createDirectories(journalPath.getParent());
+            journalChannel = FileChannel.open(journalPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return journalChannel;
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close shared API check journal: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void closeQuietly(WatchService watchService) {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Nothing left to watch
+            }
+        }
+    }
+}
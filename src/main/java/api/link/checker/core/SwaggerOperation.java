@@ -0,0 +1,21 @@
+package api.link.checker.core;
+
+/**
+ * An operation extracted from the OpenAPI document.
+ *
+ * @param httpMethod  Upper-cased HTTP method of the operation.
+ * @param path        Path of the operation as written in the document.
+ * @param tag         First tag of the operation, or "NoTag".
+ * @param operationId Operation id of the operation.
+ */
+public record SwaggerOperation(String httpMethod, String path, String tag, String operationId) {
+
+    /**
+     * Returns the Swagger UI link of the operation (e.g. "[TagName]/operationId").
+     *
+     * @return The Swagger link.
+     */
+    public String swaggerPath() {
+        return tag + "/" + operationId;
+    }
+}
@@ -1,73 +1,446 @@
 package api.link.checker.core;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import api.link.checker.metrics.ApiCheckerMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.URL;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Links tracked APIs to their Swagger UI documentation.
+ *
+ * The operations of the OpenAPI document are cached for a configurable time to live.
+ * Once it expires the document is revalidated with ETag/Last-Modified, so an unchanged
+ * document is neither regenerated nor parsed again. The computed link map is cached
+ * as long as both the document and the set of tracked APIs stay the same.
+ *
+ * The document is fetched asynchronously with {@link HttpClient} and configurable timeouts.
+ * Concurrent callers share a single in-flight fetch. Every fetch belongs to a cache generation,
+ * and a fetch started before {@link #invalidateCache} does not store its result. Unless a base URL is configured, the document
+ * is fetched from this application, using the port it is actually listening on.
+ *
+ * Springdoc groups are taken from configuration or discovered through "{docs-path}/swagger-config".
+ * The group documents are fetched and parsed concurrently on a bounded executor, each with its own
+ * cache, and their links are merged; a link into a group selects that group in Swagger UI.
+ */
 @Service
 public class SwaggerService {
 
-    private static final String SWAGGER_URL = "http://localhost:8080/v3/api-docs";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenApiOperationExtractor operationExtractor = new OpenApiOperationExtractor(objectMapper.getFactory());
+    private final Environment environment;
+    private final String baseUrl;
+    private final String docsPath;
+    private final List<String> configuredGroups;
+    private final Duration requestTimeout;
+    private final ExecutorService fetchExecutor;
+    private final HttpClient httpClient;
+    private final long cacheTtlMs;
+    private final ApiCheckerMetrics metrics;
+
+    private final Map<URI, CachedSpec> cachedSpecs = new ConcurrentHashMap<>();
+    private final Map<URI, CompletableFuture<CachedSpec>> inFlight = new HashMap<>();
+    private volatile CachedGroups cachedGroups;
+    private volatile CachedLinks cachedLinks;
+    private CompletableFuture<List<SpecGroup>> groupsInFlight;
+    private long cacheGeneration; // Guarded by this
+
+    /**
+     * Constructor with the fetch and cache configuration.
+     *
+     * @param environment      Environment to resolve the port of this application from.
+     * @param baseUrl          Base URL of the application serving the document; empty for this application.
+     * @param docsPath         Path of the OpenAPI document.
+     * @param groups           Comma-separated springdoc groups; empty to discover them.
+     * @param fetchConcurrency Number of threads fetching and parsing group documents.
+     * @param connectTimeoutMs Timeout in milliseconds for connecting to the application.
+     * @param requestTimeoutMs Timeout in milliseconds for receiving the document.
+     * @param cacheTtlMs       Time in milliseconds a fetched document is used without revalidation.
+     * @param metrics          Metrics of the library, if any.
+     */
+    public SwaggerService(Environment environment,
+                          @Value("${api.checker.swagger.base-url:}") String baseUrl,
+                          @Value("${api.checker.swagger.docs-path:${springdoc.api-docs.path:/v3/api-docs}}") String docsPath,
+                          @Value("${api.checker.swagger.groups:}") String groups,
+                          @Value("${api.checker.swagger.fetch-concurrency:4}") int fetchConcurrency,
+                          @Value("${api.checker.swagger.connect-timeout-ms:2000}") long connectTimeoutMs,
+                          @Value("${api.checker.swagger.request-timeout-ms:10000}") long requestTimeoutMs,
+                          @Value("${api.checker.swagger.cache-ttl-ms:600000}") long cacheTtlMs,
+                          ObjectProvider<ApiCheckerMetrics> metrics) {
+        this.environment = environment;
+        this.baseUrl = baseUrl;
+        this.docsPath = docsPath.startsWith("/") ? docsPath : "/" + docsPath;
+        this.configuredGroups = Arrays.stream(groups.split(","))
+                .map(String::trim)
+                .filter(group -> !group.isEmpty())
+                .toList();
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "api-checker-swagger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(fetchExecutor)
+                .build();
+        this.cacheTtlMs = cacheTtlMs;
+        this.metrics = metrics.getIfAvailable(() -> ApiCheckerMetrics.NOOP);
+    }
 
     /**
      * Fetches Swagger links by matching API information with Swagger documentation.
+     * Blocks until the document is available; see {@link #fetchSwaggerLinksAsync}.
      *
      * @param apiInfoMap A map containing API group information.
      * @return A map where the key is the HTTP method and path (e.g., "GET_/users"),
      *         and the value is the Swagger link (e.g., "[TagName]/operationId").
      */
     public Map<String, String> fetchSwaggerLinks(Map<String, List<ApiInfo>> apiInfoMap) {
-        ObjectMapper objectMapper = new ObjectMapper();
+        return fetchSwaggerLinksAsync(apiInfoMap).join();
+    }
+
+    /**
+     * Fetches Swagger links without blocking the calling thread.
+     *
+     * @param apiInfoMap A map containing API group information.
+     * @return A future of the map of API keys to Swagger links, empty if the document cannot be fetched.
+     */
+    public CompletableFuture<Map<String, String>> fetchSwaggerLinksAsync(Map<String, List<ApiInfo>> apiInfoMap) {
+        return getGroups().thenCompose(groups -> {
+            List<CompletableFuture<CachedSpec>> specs = new ArrayList<>(groups.size());
+            for (SpecGroup group : groups) {
+                specs.add(getSpec(group.uri()));
+            }
+            return CompletableFuture.allOf(specs.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> linksOf(groups, specs.stream().map(CompletableFuture::join).toList(), apiInfoMap));
+        });
+    }
+
+    /**
+     * Merges the links of all group documents. If an API is documented in several groups, the first group wins.
+     */
+    private Map<String, String> linksOf(List<SpecGroup> groups, List<CachedSpec> specs, Map<String, List<ApiInfo>> apiInfoMap) {
+        List<List<SwaggerOperation>> operations = new ArrayList<>(specs.size());
+        for (CachedSpec spec : specs) {
+            operations.add(spec != null ? spec.operations() : null);
+        }
+        if (operations.stream().allMatch(groupOperations -> groupOperations == null)) {
+            return Collections.emptyMap(); // Return an empty map on failure.
+        }
+
+        Set<String> apiKeys = new HashSet<>();
+        apiInfoMap.values().forEach(apiList -> apiList.forEach(apiInfo -> apiKeys.add(ApiKeys.of(apiInfo))));
+
+        CachedLinks links = cachedLinks;
+        if (links != null && sameOperations(links.operations(), operations) && links.apiKeys().equals(apiKeys)) {
+            return links.swaggerLinks();
+        }
+
+        ApiPathMatcher matcher = new ApiPathMatcher(apiInfoMap);
         Map<String, String> swaggerLinks = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            if (operations.get(i) != null) {
+                resolveLinks(operations.get(i), matcher, groups.get(i).name(), swaggerLinks);
+            }
+        }
+
+        swaggerLinks = Collections.unmodifiableMap(swaggerLinks);
+        cachedLinks = new CachedLinks(operations, apiKeys, swaggerLinks);
+        return swaggerLinks;
+    }
 
+    private static boolean sameOperations(List<List<SwaggerOperation>> cached, List<List<SwaggerOperation>> current) {
+        if (cached.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < cached.size(); i++) {
+            if (cached.get(i) != current.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops the cached documents, groups and links, so that the next call fetches everything again.
+     * Fetches still running are left to their callers, but their results are no longer cached.
+     */
+    public synchronized void invalidateCache() {
+        cacheGeneration++;
+        inFlight.clear();
+        groupsInFlight = null;
+        cachedSpecs.clear();
+        cachedGroups = null;
+        cachedLinks = null;
+    }
+
+    /**
+     * Stops the fetch threads.
+     */
+    @PreDestroy
+    public void close() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Matches Swagger operations with the local API information.
+     * This ensures that only managed APIs are linked to Swagger documentation.
+     * Each operation is resolved through an {@link ApiPathMatcher} built once per call,
+     * so path variable names and trailing slashes do not matter.
+     *
+     * @param operations Operations extracted from the OpenAPI document.
+     * @param apiInfoMap A map containing API group information.
+     * @return A map of API keys to Swagger links.
+     */
+    Map<String, String> resolveLinks(List<SwaggerOperation> operations, Map<String, List<ApiInfo>> apiInfoMap) {
+        Map<String, String> swaggerLinks = new HashMap<>();
+        resolveLinks(operations, new ApiPathMatcher(apiInfoMap), null, swaggerLinks);
+        return swaggerLinks;
+    }
+
+    private void resolveLinks(List<SwaggerOperation> operations, ApiPathMatcher matcher, String groupName,
+                              Map<String, String> swaggerLinks) {
+        String prefix = groupName != null
+                ? "?urls.primaryName=" + encode(groupName) + "#/"
+                : "";
+        for (SwaggerOperation operation : operations) {
+            for (ApiInfo apiInfo : matcher.match(operation.httpMethod(), operation.path())) {
+                swaggerLinks.putIfAbsent(apiInfo.getHttpMethod() + "_" + apiInfo.getPath(), prefix + operation.swaggerPath());
+            }
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * Returns the configured groups, or the groups discovered from the Swagger UI configuration.
+     *
+     * @return A future of the groups; a single unnamed group for the plain document if there are none.
+     */
+    private synchronized CompletableFuture<List<SpecGroup>> getGroups() {
+        URI docsUri;
         try {
-            // Fetch Swagger documentation from the configured URL.
-            Map<String, Object> swaggerData = objectMapper.readValue(new URL(SWAGGER_URL), new TypeReference<>() {});
-
-            // Extract API paths from Swagger data.
-            Map<String, Map<String, Object>> paths = (Map<String, Map<String, Object>>) swaggerData.get("paths");
-
-            for (Map.Entry<String, Map<String, Object>> pathEntry : paths.entrySet()) {
-                String path = pathEntry.getKey();
-                Map<String, Object> methods = pathEntry.getValue();
-
-                for (Map.Entry<String, Object> methodEntry : methods.entrySet()) {
-                    String httpMethod = methodEntry.getKey().toUpperCase();
-                    Map<String, Object> methodDetails = (Map<String, Object>) methodEntry.getValue();
-
-                    // Extract operationId and tags from Swagger method details.
-                    String operationId = (String) methodDetails.get("operationId");
-                    List<String> tags = (List<String>) methodDetails.get("tags");
-
-                    /**
-                     * Match Swagger API information with the local API information.
-                     * This ensures that only managed APIs are linked to Swagger documentation.
-                     */
-                    for (Map.Entry<String, List<ApiInfo>> group : apiInfoMap.entrySet()) {
-                        for (ApiInfo apiInfo : group.getValue()) {
-                            if (apiInfo.getPath().equals(path) && apiInfo.getHttpMethod().equalsIgnoreCase(httpMethod)) {
-                                // Construct Swagger path using the tag and operationId.
-                                String tag = tags != null && !tags.isEmpty() ? tags.get(0) : "NoTag";
-                                String swaggerPath = tag + "/" + operationId;
-
-                                // Add the mapping to swaggerLinks.
-                                swaggerLinks.put(apiInfo.getHttpMethod() + "_" + apiInfo.getPath(), swaggerPath);
-                            }
-                        }
-                    }
+            docsUri = docsUri();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        if (!configuredGroups.isEmpty()) {
+            return CompletableFuture.completedFuture(configuredGroups.stream()
+                    .map(group -> new SpecGroup(group, URI.create(docsUri + "/" + encode(group))))
+                    .toList());
+        }
+
+        CachedGroups groups = cachedGroups;
+        long now = System.currentTimeMillis();
+        if (groups != null && now - groups.validatedAt() < cacheTtlMs) {
+            return CompletableFuture.completedFuture(groups.groups());
+        }
+        if (groupsInFlight != null) {
+            return groupsInFlight;
+        }
+
+        CompletableFuture<List<SpecGroup>> discovery = discoverGroups(docsUri, now, cacheGeneration);
+        groupsInFlight = discovery;
+        discovery.whenComplete((result, e) -> clearGroupsInFlight(discovery));
+        return discovery;
+    }
+
+    private synchronized void clearGroupsInFlight(CompletableFuture<List<SpecGroup>> discovery) {
+        if (groupsInFlight == discovery) {
+            groupsInFlight = null;
+        }
+    }
+
+    /**
+     * Reads the springdoc groups from "{docs-path}/swagger-config".
+     * If the configuration lists no groups, the plain document is used; if it cannot be fetched,
+     * the plain document is used without caching the result.
+     */
+    private CompletableFuture<List<SpecGroup>> discoverGroups(URI docsUri, long now, long generation) {
+        List<SpecGroup> plainDocument = List.of(new SpecGroup(null, docsUri));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(docsUri + "/swagger-config"))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    List<SpecGroup> groups = response.statusCode() == 200 ? parseGroups(docsUri, response.body()) : List.of();
+                    groups = groups.isEmpty() ? plainDocument : groups;
+                    storeGroups(new CachedGroups(groups, now), generation);
+                    return groups;
+                })
+                .exceptionally(e -> plainDocument);
+    }
+
+    private List<SpecGroup> parseGroups(URI docsUri, byte[] body) {
+        List<SpecGroup> groups = new ArrayList<>();
+        try {
+            for (JsonNode url : objectMapper.readTree(body).path("urls")) {
+                String location = url.path("url").asText("");
+                if (!location.isEmpty()) {
+                    // Springdoc lists absolute paths that already contain the context path
+                    groups.add(new SpecGroup(url.path("name").asText(location), docsUri.resolve(location)));
                 }
             }
         } catch (IOException e) {
-            return Collections.emptyMap(); // Return an empty map on failure.
+            return List.of();
         }
+        return groups;
+    }
 
-        return swaggerLinks;
+    /**
+     * Returns the cached document, revalidating or fetching it when the time to live has passed.
+     * A caller arriving while a fetch of the same document is running joins that fetch instead of starting another one.
+     *
+     * @param uri URI of the document.
+     * @return A future of the document, or of null if it has never been fetched successfully.
+     */
+    private synchronized CompletableFuture<CachedSpec> getSpec(URI uri) {
+        CachedSpec spec = cachedSpecs.get(uri);
+        long now = System.currentTimeMillis();
+        if (spec != null && now - spec.validatedAt() < cacheTtlMs) {
+            metrics.recordSwaggerCache(true);
+            return CompletableFuture.completedFuture(spec);
+        }
+
+        CompletableFuture<CachedSpec> fetch = inFlight.get(uri);
+        if (fetch != null) {
+            return fetch;
+        }
+
+        CompletableFuture<CachedSpec> newFetch = fetchSpec(uri, spec, now, cacheGeneration);
+        inFlight.put(uri, newFetch);
+        newFetch.whenComplete((result, e) -> clearInFlight(uri, newFetch));
+        return newFetch;
+    }
+
+    private synchronized void clearInFlight(URI uri, CompletableFuture<CachedSpec> fetch) {
+        inFlight.remove(uri, fetch);
+    }
+
+    private synchronized void storeSpec(URI uri, CachedSpec spec, long generation) {
+        if (generation == cacheGeneration) {
+            cachedSpecs.put(uri, spec);
+        }
+    }
+
+    private synchronized void storeGroups(CachedGroups groups, long generation) {
+        if (generation == cacheGeneration) {
+            cachedGroups = groups;
+        }
+    }
+
+    /**
+     * Sends a conditional request for a document and parses the response on the fetch executor.
+     *
+     * @param uri        URI of the document.
+     * @param spec       The cached document, or null.
+     * @param now        Time of the request.
+     * @param generation Cache generation the fetch belongs to; the result is only cached while it is current.
+     * @return A future of the new document, or of the cached one if the request fails.
+     */
+    private CompletableFuture<CachedSpec> fetchSpec(URI uri, CachedSpec spec, long now, long generation) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET();
+        if (spec != null) {
+            if (spec.etag() != null) request.header("If-None-Match", spec.etag());
+            if (spec.lastModified() != null) request.header("If-Modified-Since", spec.lastModified());
+        }
+
+        long fetchStart = System.nanoTime();
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApplyAsync(response -> {
+                    metrics.recordSwaggerFetch(System.nanoTime() - fetchStart);
+                    if (spec != null && response.statusCode() == 304) {
+                        metrics.recordSwaggerCache(true);
+                        return spec.revalidated(now);
+                    }
+                    if (response.statusCode() != 200) {
+                        return spec; // Keep serving the last known document on failure.
+                    }
+                    metrics.recordSwaggerCache(false);
+
+                    List<SwaggerOperation> operations;
+                    long parseStart = System.nanoTime();
+                    try {
+                        operations = operationExtractor.extract(new ByteArrayInputStream(response.body()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    metrics.recordSwaggerParse(System.nanoTime() - parseStart);
+
+                    return new CachedSpec(operations,
+                            response.headers().firstValue("ETag").orElse(null),
+                            response.headers().firstValue("Last-Modified").orElse(null), now);
+                }, fetchExecutor)
+                .exceptionally(e -> spec) // Keep serving the last known document on failure.
+                .thenApply(result -> {
+                    if (result != null) {
+                        storeSpec(uri, result, generation);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Resolves the URI of the plain document. Without a configured base URL the port is read on every call,
+     * because "local.server.port" is only known once the web server has started.
+     */
+    private URI docsUri() {
+        String base = baseUrl;
+        if (base == null || base.isBlank()) {
+            String port = environment.getProperty("local.server.port", environment.getProperty("server.port", "8080"));
+            base = "http://localhost:" + port + environment.getProperty("server.servlet.context-path", "");
+        }
+        if (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        return URI.create(base + docsPath);
+    }
+
+    private record CachedSpec(List<SwaggerOperation> operations, String etag, String lastModified, long validatedAt) {
+
+        CachedSpec revalidated(long now) {
+            return new CachedSpec(operations, etag, lastModified, now);
+        }
+    }
+
+    private record SpecGroup(String name, URI uri) {
+    }
+
+    private record CachedGroups(List<SpecGroup> groups, long validatedAt) {
+    }
+
+    private record CachedLinks(List<List<SwaggerOperation>> operations, Set<String> apiKeys, Map<String, String> swaggerLinks) {
     }
 }
@@ -0,0 +1,172 @@
+package api.link.checker.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of {@code @ApiGroup} classes and their {@code @TrackApi} methods, generated at compile time
+ * by {@code TrackApiIndexProcessor} and loaded by {@link ApiScanner} instead of reflecting over every controller.
+ *
+ * The index is a UTF-8 text resource with one tab-separated row per line:
+ * a group row ({@code className, groupName}) for every {@code @ApiGroup} class, followed by an
+ * API row ({@code className, groupName, methodSignature, httpMethod, path, description}) for each of
+ * its tracked methods. Tabs, line breaks and backslashes in values are escaped with a backslash.
+ * This class must not depend on Spring, because the annotation processor uses it inside the compiler.
+ */
+public final class TrackApiIndex {
+
+    public static final String RESOURCE_LOCATION = "META-INF/api-link-checker/track-api.index";
+    public static final String HEADER = "# api-link-checker track-api index v1";
+
+    private final Map<String, IndexedGroup> groups;
+
+    private TrackApiIndex(Map<String, IndexedGroup> groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * Loads and merges every index resource visible to a class loader.
+     *
+     * @param classLoader Class loader of the application.
+     * @return The index, or null if no index resource exists.
+     */
+    public static TrackApiIndex load(ClassLoader classLoader) {
+        Map<String, IndexedGroup> groups = new HashMap<>();
+        boolean found = false;
+
+        try {
+            Enumeration<URL> resources = classLoader.getResources(RESOURCE_LOCATION);
+            while (resources.hasMoreElements()) {
+                found = true;
+                try (InputStream in = resources.nextElement().openStream()) {
+                    read(in, groups);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load API index: " + e.getMessage());
+            return null; // Fall back to reflection
+        }
+
+        return found ? new TrackApiIndex(groups) : null;
+    }
+
+    private static void read(InputStream in, Map<String, IndexedGroup> groups) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 2) continue;
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = unescape(fields[i]);
+            }
+
+            IndexedGroup group = groups.computeIfAbsent(fields[0], className -> new IndexedGroup(fields[1], new ArrayList<>()));
+            if (fields.length >= 6) {
+                group.apis().add(new IndexedApi(fields[2], fields[3], fields[4], fields[5]));
+            }
+        }
+    }
+
+    /**
+     * Returns the indexed group of a class.
+     *
+     * @param className Fully qualified name of an {@code @ApiGroup} class.
+     * @return The group, or null if the class is not in the index.
+     */
+    public IndexedGroup findGroup(String className) {
+        return groups.get(className);
+    }
+
+    /**
+     * Formats a group row.
+     *
+     * @param className Fully qualified name of the class.
+     * @param groupName Name of the group.
+     * @return The row without a line break.
+     */
+    public static String groupRow(String className, String groupName) {
+        return escape(className) + "\t" + escape(groupName);
+    }
+
+    /**
+     * Formats an API row.
+     *
+     * @param className Fully qualified name of the class.
+     * @param groupName Name of the group.
+     * @param api       The tracked method.
+     * @return The row without a line break.
+     */
+    public static String apiRow(String className, String groupName, IndexedApi api) {
+        return String.join("\t", escape(className), escape(groupName), escape(api.methodSignature()),
+                escape(api.httpMethod()), escape(api.path()), escape(api.description()));
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                unescaped.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * An {@code @ApiGroup} class in the index.
+     *
+     * @param groupName Name of the group.
+     * @param apis      Tracked methods of the class.
+     */
+    public record IndexedGroup(String groupName, List<IndexedApi> apis) {
+    }
+
+    /**
+     * A {@code @TrackApi} method in the index.
+     *
+     * @param methodSignature Method name and erased parameter types, e.g. "getUser(java.lang.Long)".
+     * @param httpMethod      HTTP method of the API.
+     * @param path            Full path of the API.
+     * @param description     Description from {@code @TrackApi}.
+     */
+    public record IndexedApi(String methodSignature, String httpMethod, String path, String description) {
+    }
+}
@@ -0,0 +1,79 @@
+package api.link.checker.metrics;
+
+import java.util.Map;
+
+/**
+ * Records what the library costs the host application.
+ * All methods default to doing nothing, so {@link #NOOP} is used when Micrometer is not present.
+ */
+public interface ApiCheckerMetrics {
+
+    ApiCheckerMetrics NOOP = new ApiCheckerMetrics() {
+    };
+
+    /**
+     * Records the duration of an API scan on context refresh.
+     *
+     * @param nanos Duration in nanoseconds.
+     */
+    default void recordScan(long nanos) {
+    }
+
+    /**
+     * Records a write of the status file.
+     *
+     * @param nanos    Duration in nanoseconds.
+     * @param fileSize Size of the written file in bytes.
+     */
+    default void recordSave(long nanos, long fileSize) {
+    }
+
+    /**
+     * Records a load of the status file at startup.
+     *
+     * @param nanos    Duration in nanoseconds.
+     * @param fileSize Size of the loaded file in bytes.
+     */
+    default void recordLoad(long nanos, long fileSize) {
+    }
+
+    /**
+     * Records applied check updates.
+     *
+     * @param count Number of updated APIs.
+     */
+    default void recordCheckUpdates(int count) {
+    }
+
+    /**
+     * Records the download of the OpenAPI document.
+     *
+     * @param nanos Duration in nanoseconds.
+     */
+    default void recordSwaggerFetch(long nanos) {
+    }
+
+    /**
+     * Records the parsing of the OpenAPI document.
+     *
+     * @param nanos Duration in nanoseconds.
+     */
+    default void recordSwaggerParse(long nanos) {
+    }
+
+    /**
+     * Records a lookup of the cached OpenAPI document.
+     *
+     * @param hit True if the document was served without parsing it again.
+     */
+    default void recordSwaggerCache(boolean hit) {
+    }
+
+    /**
+     * Records the number of tracked APIs per group.
+     *
+     * @param groupSizes Number of APIs by group name.
+     */
+    default void recordGroupSizes(Map<String, Integer> groupSizes) {
+    }
+}
@@ -0,0 +1,117 @@
+package api.link.checker.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ApiCheckerMetrics} backed by a Micrometer {@link MeterRegistry}.
+ * Only loaded when Micrometer is on the classpath.
+ */
+public class MicrometerApiCheckerMetrics implements ApiCheckerMetrics {
+    private final MeterRegistry registry;
+    private final Timer scanTimer;
+    private final Timer saveTimer;
+    private final Timer loadTimer;
+    private final Counter checkUpdates;
+    private final Timer swaggerFetchTimer;
+    private final Timer swaggerParseTimer;
+    private final Counter swaggerCacheHits;
+    private final Counter swaggerCacheMisses;
+    private final AtomicLong fileSize = new AtomicLong();
+    private final Map<String, AtomicInteger> groupSizes = new ConcurrentHashMap<>();
+
+    public MicrometerApiCheckerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.scanTimer = Timer.builder("api.checker.scan")
+                .description("Duration of the @TrackApi scan on context refresh")
+                .register(registry);
+        this.saveTimer = Timer.builder("api.checker.storage.save")
+                .description("Duration of writing the status file")
+                .register(registry);
+        this.loadTimer = Timer.builder("api.checker.storage.load")
+                .description("Duration of loading the status file")
+                .register(registry);
+        this.checkUpdates = Counter.builder("api.checker.check.updates")
+                .description("Number of applied check updates")
+                .register(registry);
+        this.swaggerFetchTimer = Timer.builder("api.checker.swagger.fetch")
+                .description("Duration of downloading the OpenAPI document")
+                .register(registry);
+        this.swaggerParseTimer = Timer.builder("api.checker.swagger.parse")
+                .description("Duration of parsing the OpenAPI document")
+                .register(registry);
+        this.swaggerCacheHits = Counter.builder("api.checker.swagger.cache")
+                .description("Lookups of the cached OpenAPI document")
+                .tag("result", "hit")
+                .register(registry);
+        this.swaggerCacheMisses = Counter.builder("api.checker.swagger.cache")
+                .description("Lookups of the cached OpenAPI document")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("api.checker.storage.file.size", fileSize, AtomicLong::get)
+                .description("Size of the status file")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public void recordScan(long nanos) {
+        scanTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSave(long nanos, long fileSize) {
+        saveTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.fileSize.set(fileSize);
+    }
+
+    @Override
+    public void recordLoad(long nanos, long fileSize) {
+        loadTimer.record(nanos, TimeUnit.NANOSECONDS);
+        this.fileSize.set(fileSize);
+    }
+
+    @Override
+    public void recordCheckUpdates(int count) {
+        checkUpdates.increment(count);
+    }
+
+    @Override
+    public void recordSwaggerFetch(long nanos) {
+        swaggerFetchTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSwaggerParse(long nanos) {
+        swaggerParseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSwaggerCache(boolean hit) {
+        (hit ? swaggerCacheHits : swaggerCacheMisses).increment();
+    }
+
+    @Override
+    public void recordGroupSizes(Map<String, Integer> sizes) {
+        // Groups that disappeared keep their gauge but drop to zero
+        groupSizes.forEach((groupName, size) -> {
+            if (!sizes.containsKey(groupName)) size.set(0);
+        });
+        sizes.forEach((groupName, size) -> groupSizes.computeIfAbsent(groupName, name -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("api.checker.apis", value, AtomicInteger::get)
+                    .description("Number of tracked APIs in a group")
+                    .tag("group", name)
+                    .register(registry);
+            return value;
+        }).set(size));
+    }
+}
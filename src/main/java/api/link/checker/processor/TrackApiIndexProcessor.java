@@ -0,0 +1,332 @@
+package api.link.checker.processor;
+
+import api.link.checker.core.TrackApiIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Generates the {@link TrackApiIndex} resource at compile time.
+ *
+ * For every {@code @ApiGroup} class the processor records the group name and each public method
+ * annotated with {@code @TrackApi} (directly or on an implemented interface method), with one row per
+ * HTTP method and full path of its mapping and the description. Mappings are read from the method,
+ * or from the interface method it implements if the method has none. A mapping that does not restrict the
+ * HTTP method is recorded as "ALL". Spring annotations are read by name, so the processor
+ * does not need Spring on the processor path.
+ */
+@SupportedAnnotationTypes("api.link.checker.annotation.ApiGroup")
+public class TrackApiIndexProcessor extends AbstractProcessor {
+
+    private static final String API_GROUP = "api.link.checker.annotation.ApiGroup";
+    private static final String TRACK_API = "api.link.checker.annotation.TrackApi";
+    private static final String REQUEST_MAPPING = "org.springframework.web.bind.annotation.RequestMapping";
+    private static final String MAPPING_PACKAGE = "org.springframework.web.bind.annotation.";
+    private static final List<String> HTTP_METHODS = List.of("Get", "Post", "Delete", "Put", "Patch");
+
+    // Sorted by class name, so the generated resource is reproducible
+    private final Map<String, List<String>> rowsByClass = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement apiGroupType = processingEnv.getElementUtils().getTypeElement(API_GROUP);
+        if (apiGroupType != null) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(apiGroupType))) {
+                if (type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT)) {
+                    rowsByClass.put(binaryName(type), indexClass(type));
+                }
+            }
+        }
+
+        if (roundEnv.processingOver() && !rowsByClass.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /**
+     * Builds the index rows of one {@code @ApiGroup} class.
+     *
+     * @param type The class to index.
+     * @return The group row followed by one row per tracked method.
+     */
+    private List<String> indexClass(TypeElement type) {
+        String className = binaryName(type);
+        String groupName = stringValue(findAnnotation(type, API_GROUP), "value");
+        List<String> basePaths = paths(findTypeAnnotation(type, REQUEST_MAPPING));
+
+        List<String> rows = new ArrayList<>();
+        rows.add(TrackApiIndex.groupRow(className, groupName));
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        for (ExecutableElement method : methods) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC)) continue;
+
+            AnnotationMirror trackApi = findTrackApi(type, method);
+            if (trackApi == null) continue;
+
+            // Like Spring MVC, take the mapping from the interface method if the method itself has none
+            ExecutableElement mapped = findMappedMethod(type, method);
+
+            List<String> httpMethods = List.of("ALL");
+            AnnotationMirror mapping = findAnnotation(mapped, REQUEST_MAPPING);
+            if (mapping != null) {
+                httpMethods = requestMethods(mapping);
+            }
+            for (String verb : HTTP_METHODS) {
+                AnnotationMirror mirror = findAnnotation(mapped, MAPPING_PACKAGE + verb + "Mapping");
+                if (mirror != null) {
+                    httpMethods = List.of(verb.toUpperCase());
+                    mapping = mirror;
+                    break;
+                }
+            }
+
+            for (String basePath : basePaths) {
+                for (String path : paths(mapping)) {
+                    for (String httpMethod : httpMethods) {
+                        rows.add(TrackApiIndex.apiRow(className, groupName, new TrackApiIndex.IndexedApi(
+                                signature(method), httpMethod, basePath + path, stringValue(trackApi, "description"))));
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Finds {@code @TrackApi} on a method, or on the interface method it implements.
+     */
+    private AnnotationMirror findTrackApi(TypeElement type, ExecutableElement method) {
+        AnnotationMirror trackApi = findAnnotation(method, TRACK_API);
+        if (trackApi != null) {
+            return trackApi;
+        }
+
+        for (ExecutableElement ifaceMethod : interfaceMethods(type, method)) {
+            trackApi = findAnnotation(ifaceMethod, TRACK_API);
+            if (trackApi != null) {
+                return trackApi;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the method that carries the mapping annotations of a method: the method itself,
+     * or the first interface method it implements that has a mapping.
+     */
+    private ExecutableElement findMappedMethod(TypeElement type, ExecutableElement method) {
+        if (hasMapping(method)) {
+            return method;
+        }
+
+        for (ExecutableElement ifaceMethod : interfaceMethods(type, method)) {
+            if (hasMapping(ifaceMethod)) {
+                return ifaceMethod;
+            }
+        }
+        return method;
+    }
+
+    private static boolean hasMapping(ExecutableElement method) {
+        if (findAnnotation(method, REQUEST_MAPPING) != null) {
+            return true;
+        }
+        for (String verb : HTTP_METHODS) {
+            if (findAnnotation(method, MAPPING_PACKAGE + verb + "Mapping") != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the methods of the interfaces of a type that a method implements, or the method itself
+     * if it is declared by one of them.
+     */
+    private List<ExecutableElement> interfaceMethods(TypeElement type, ExecutableElement method) {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (TypeMirror iface : type.getInterfaces()) {
+            Element ifaceElement = processingEnv.getTypeUtils().asElement(iface);
+            if (!(ifaceElement instanceof TypeElement ifaceType)) continue;
+
+            for (ExecutableElement ifaceMethod : ElementFilter.methodsIn(ifaceType.getEnclosedElements())) {
+                if (ifaceMethod.getSimpleName().equals(method.getSimpleName())
+                        && (ifaceMethod.equals(method)
+                        || processingEnv.getElementUtils().overrides(method, ifaceMethod, type))) {
+                    methods.add(ifaceMethod);
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Finds an annotation on a type or on its superclasses and interfaces.
+     */
+    private AnnotationMirror findTypeAnnotation(TypeElement type, String annotationName) {
+        AnnotationMirror mirror = findAnnotation(type, annotationName);
+        if (mirror != null) {
+            return mirror;
+        }
+
+        List<TypeMirror> supertypes = new ArrayList<>(type.getInterfaces());
+        if (type.getSuperclass().getKind() == TypeKind.DECLARED) {
+            supertypes.add(type.getSuperclass());
+        }
+        for (TypeMirror supertype : supertypes) {
+            Element element = processingEnv.getTypeUtils().asElement(supertype);
+            if (element instanceof TypeElement superElement) {
+                mirror = findTypeAnnotation(superElement, annotationName);
+                if (mirror != null) {
+                    return mirror;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationValue findValue(AnnotationMirror mirror, String name) {
+        if (mirror == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = findValue(mirror, name);
+        return value != null ? String.valueOf(value.getValue()) : "";
+    }
+
+    /**
+     * Returns the paths of a mapping annotation, from {@code value} or its {@code path} alias, or "" if it has none.
+     */
+    private static List<String> paths(AnnotationMirror mirror) {
+        for (String name : List.of("value", "path")) {
+            List<String> paths = stringValues(mirror, name);
+            if (!paths.isEmpty()) {
+                return paths;
+            }
+        }
+        return List.of("");
+    }
+
+    /**
+     * Returns the {@code method} values of a {@code @RequestMapping}, or "ALL" if it has none.
+     */
+    private static List<String> requestMethods(AnnotationMirror mirror) {
+        List<String> methods = stringValues(mirror, "method");
+        return methods.isEmpty() ? List.of("ALL") : methods.stream().distinct().toList();
+    }
+
+    /**
+     * Returns the elements of an array attribute; enum constants are returned by name.
+     */
+    private static List<String> stringValues(AnnotationMirror mirror, String name) {
+        AnnotationValue value = findValue(mirror, name);
+        List<String> values = new ArrayList<>();
+        if (value != null && value.getValue() instanceof List<?> elements) {
+            for (Object element : elements) {
+                Object elementValue = ((AnnotationValue) element).getValue();
+                values.add(elementValue instanceof VariableElement constant
+                        ? constant.getSimpleName().toString()
+                        : String.valueOf(elementValue));
+            }
+        }
+        return values;
+    }
+
+    private String signature(ExecutableElement method) {
+        StringJoiner parameters = new StringJoiner(",", method.getSimpleName() + "(", ")");
+        for (VariableElement parameter : method.getParameters()) {
+            parameters.add(typeName(processingEnv.getTypeUtils().erasure(parameter.asType())));
+        }
+        return parameters.toString();
+    }
+
+    /**
+     * Returns the name of a type as {@link Class#getTypeName()} would, e.g. "java.lang.String[]".
+     */
+    private String typeName(TypeMirror type) {
+        if (type instanceof ArrayType arrayType) {
+            return typeName(arrayType.getComponentType()) + "[]";
+        }
+        if (type instanceof DeclaredType declaredType) {
+            return binaryName((TypeElement) declaredType.asElement());
+        }
+        return type.toString();
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", TrackApiIndex.RESOURCE_LOCATION);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write(TrackApiIndex.HEADER);
+                writer.write('\n');
+                for (List<String> rows : rowsByClass.values()) {
+                    for (String row : rows) {
+                        writer.write(row);
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Failed to write API index: " + e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,44 @@
 const apiBase = '/v1/api/link/checker';
-const swaggerBase = '/swagger-ui/index.html#/';
+const swaggerUi = '/swagger-ui/index.html';
+const swaggerBase = `${swaggerUi}#/`;
 
 const apiGroupsDiv = document.getElementById('api-groups');
 const messageDiv = document.getElementById('message');
 const filterDropdown = document.getElementById('group-filter');
+const searchInput = document.getElementById('search-input');
+const methodFilter = document.getElementById('method-filter');
+const statusFilter = document.getElementById('status-filter');
+const loadMoreButton = document.getElementById('load-more');
 const nicknameModal = document.getElementById('nickname-modal');
 const nicknameInput = document.getElementById('nickname-input');
 const setNicknameButton = document.getElementById('set-nickname');
 const resetNicknameButton = document.getElementById('reset-nickname');
 
+// Groups with more APIs than this render only the rows near the viewport
+const windowThreshold = 200;
+// Height of a windowed row including the gap below it, see .api-list.windowed in styles.css
+const rowHeight = 58;
+const overscanRows = 10;
+// Filtered views are read from the server's query endpoint page by page
+const pageSize = 100;
+const searchDelayMs = 250;
+
 let allGroups = {};
 let swaggerLinks = {};
+let apiIndex = new Map();
+let stateVersion = null;
+// Deltas received while the full state loads are held back and applied once it is shown
+let pendingDeltas = null;
+let loadGeneration = 0;
+let resyncAfterLoad = false;
+let renderedLists = [];
+let rowsByKey = new Map();
+let windowUpdatePending = false;
+let queryHits = [];
+let queryIndex = new Map();
+let queryCursor = null;
+let queryGeneration = 0;
+let searchTimer = null;
 
 function setNicknameAndCloseModal() {
     nickname = nicknameInput.value.trim();
@@ -46,22 +74,150 @@ function resetNickname() {
 resetNicknameButton.addEventListener('click', resetNickname);
 
 async function fetchApiGroups() {
+    const generation = ++loadGeneration;
+    pendingDeltas = pendingDeltas ?? [];
     try {
         const response = await fetch(`${apiBase}`);
+        if (generation !== loadGeneration) return; // A newer load replaces this one
+        if (response.status === 503) {
+            // The checker loads in the background, try again once it is ready
+            showMessage('API checker is warming up...', 'success');
+            setTimeout(fetchApiGroups, 1000);
+            return;
+        }
         if (!response.ok) throw new Error('Failed to fetch API data');
         const data = await response.json();
-        allGroups = data;
+        const version = parseVersion(response.headers.get('ETag'));
 
         await fetchSwaggerLinks();
-
-        populateFilterDropdown(Object.keys(data));
-        renderApiGroups(data);
+        if (generation !== loadGeneration) return;
+        stateVersion = version;
+        showApiGroups(data);
+        applyPendingDeltas(version);
     } catch (error) {
+        if (generation === loadGeneration) {
+            pendingDeltas = null;
+        }
         console.error('Error fetching API groups:', error);
         showMessage('Error fetching API groups', 'error');
     }
 }
 
+function applyPendingDeltas(version) {
+    const deltas = pendingDeltas;
+    pendingDeltas = null;
+    // Deltas the loaded state already contains are dropped
+    deltas.filter(delta => version === null || delta.version === undefined || delta.version > version)
+        .forEach(applyDelta);
+
+    if (resyncAfterLoad) {
+        // The stream opened during the load, changes between the state and the stream are fetched once
+        resyncAfterLoad = false;
+        if (stateVersion !== null) fetchChangesSince(stateVersion);
+    }
+}
+
+async function fetchChangesSince(version) {
+    try {
+        const response = await fetch(`${apiBase}?sinceVersion=${version}`);
+        if (!response.ok) throw new Error('Failed to fetch API changes');
+        const changes = await response.json();
+        stateVersion = changes.version;
+
+        if (changes.full) {
+            await fetchSwaggerLinks();
+            showApiGroups(changes.groups);
+        } else {
+            changes.changes.forEach(applyDelta);
+        }
+    } catch (error) {
+        console.error('Error fetching API changes:', error);
+        await fetchApiGroups();
+    }
+}
+
+function parseVersion(etag) {
+    const version = etag ? Number(etag.replace(/^W\//, '').replace(/"/g, '')) : NaN;
+    return Number.isNaN(version) ? null : version;
+}
+
+function showApiGroups(groups) {
+    allGroups = groups;
+    apiIndex = buildApiIndex(Object.values(groups));
+
+    const selectedGroup = filterDropdown.value;
+    populateFilterDropdown(Object.keys(groups));
+    if (selectedGroup && groups[selectedGroup]) {
+        filterDropdown.value = selectedGroup;
+    }
+    showFilteredApis();
+}
+
+function filtersActive() {
+    return Boolean(filterDropdown.value || searchInput.value.trim() || methodFilter.value || statusFilter.value);
+}
+
+// Without filters every group is shown, otherwise the server filters and pages the APIs
+function showFilteredApis() {
+    if (filtersActive()) {
+        runQuery();
+    } else {
+        clearQuery();
+        renderApiGroups(allGroups);
+    }
+}
+
+function queryParams(cursor) {
+    const params = new URLSearchParams({limit: pageSize});
+    if (filterDropdown.value) params.set('group', filterDropdown.value);
+    if (searchInput.value.trim()) params.set('q', searchInput.value.trim());
+    if (methodFilter.value) params.set('httpMethod', methodFilter.value);
+    if (statusFilter.value) params.set('checked', statusFilter.value);
+    if (cursor) params.set('cursor', cursor);
+    return params;
+}
+
+async function runQuery(cursor = null) {
+    const generation = ++queryGeneration;
+    try {
+        const response = await fetch(`${apiBase}/query?${queryParams(cursor)}`);
+        if (generation !== queryGeneration) return; // Replaced by a newer query
+        if (response.status === 400 && cursor) {
+            runQuery(); // The groups changed since the first page, start over
+            return;
+        }
+        if (!response.ok) throw new Error('Failed to query APIs');
+        const page = await response.json();
+        if (generation !== queryGeneration) return;
+
+        queryHits = cursor ? queryHits.concat(page.items) : page.items;
+        queryIndex = buildApiIndex([queryHits]);
+        queryCursor = page.nextCursor;
+        renderApiGroups(groupHits(queryHits));
+
+        loadMoreButton.hidden = !queryCursor;
+        loadMoreButton.textContent = `Load more (${queryHits.length} of ${page.total})`;
+    } catch (error) {
+        console.error('Error querying APIs:', error);
+        showMessage('Error querying APIs', 'error');
+    }
+}
+
+function clearQuery() {
+    queryGeneration++;
+    queryHits = [];
+    queryIndex = new Map();
+    queryCursor = null;
+    loadMoreButton.hidden = true;
+}
+
+// Hits arrive in group order, so consecutive hits of a group form its list
+function groupHits(hits) {
+    const groups = {};
+    hits.forEach(hit => (groups[hit.group] ??= []).push(hit));
+    return groups;
+}
+
 async function fetchSwaggerLinks() {
     try {
         const response = await fetch(`${apiBase}/swagger-links`);
@@ -73,6 +229,27 @@ async function fetchSwaggerLinks() {
     }
 }
 
+// Links into a springdoc group start with the query selecting the group
+function swaggerHref(swaggerLink) {
+    return swaggerLink.startsWith('?') ? `${swaggerUi}${swaggerLink}` : `${swaggerBase}${swaggerLink.replace(/^\/+/, '')}`;
+}
+
+function apiKey(httpMethod, path) {
+    return `${httpMethod}_${path}`;
+}
+
+function buildApiIndex(apiLists) {
+    const index = new Map();
+    for (const apis of apiLists) {
+        apis.forEach(api => {
+            const key = apiKey(api.httpMethod, api.path);
+            if (!index.has(key)) index.set(key, []);
+            index.get(key).push(api);
+        });
+    }
+    return index;
+}
+
 function populateFilterDropdown(groupNames) {
     filterDropdown.innerHTML = '<option value="">All Groups</option>';
     groupNames.forEach(groupName => {
@@ -83,52 +260,143 @@ function populateFilterDropdown(groupNames) {
     });
 }
 
-filterDropdown.addEventListener('change', () => {
-    const selectedGroup = filterDropdown.value;
-    if (selectedGroup) {
-        renderApiGroups({[selectedGroup]: allGroups[selectedGroup]});
-    } else {
-        renderApiGroups(allGroups);
-    }
+filterDropdown.addEventListener('change', showFilteredApis);
+methodFilter.addEventListener('change', showFilteredApis);
+statusFilter.addEventListener('change', showFilteredApis);
+
+searchInput.addEventListener('input', () => {
+    clearTimeout(searchTimer);
+    searchTimer = setTimeout(showFilteredApis, searchDelayMs);
+});
+
+loadMoreButton.addEventListener('click', () => {
+    if (queryCursor) runQuery(queryCursor);
 });
 
 function renderApiGroups(groups) {
     apiGroupsDiv.innerHTML = '';
+    renderedLists = [];
+    rowsByKey = new Map();
+
     for (const [groupName, apis] of Object.entries(groups)) {
         const groupDiv = document.createElement('div');
         groupDiv.classList.add('group');
-        groupDiv.innerHTML = `<h2>${groupName}</h2>`;
+        groupDiv.dataset.group = groupName;
+        groupDiv.innerHTML = `
+            <div class="group-header">
+                <h2>${groupName}</h2>
+                <button class="check-all">Check all</button>
+            </div>
+        `;
         const apiList = document.createElement('ul');
         apiList.classList.add('api-list');
-
-        apis.forEach(api => {
-            const apiItem = document.createElement('li');
-            apiItem.classList.add('api-item', api.checked ? 'checked' : 'unchecked');
-
-            const formattedText = formatApiText(api.httpMethod, api.path, api.description);
-
-            const swaggerLink = swaggerLinks[`${api.httpMethod}_${api.path}`] || '';
-            const nickname = api.nickname ? `<span class="api-nickname">[${api.nickname}]</span>` : '';
-
-            apiItem.innerHTML = `
-                <div class="api-text">${formattedText}</div>
-                ${nickname}
-                <a href="${swaggerBase}${swaggerLink.replace(/^\/+/, '')}" target="_blank" class="swagger-link">[Swagger]</a>
-                <input type="checkbox" class="checkbox" ${api.checked ? 'checked' : ''}
-                data-path="${api.path}" data-method="${api.httpMethod}">
-            `;
-            apiList.appendChild(apiItem);
-        });
-
         groupDiv.appendChild(apiList);
         apiGroupsDiv.appendChild(groupDiv);
+
+        const windowed = apis.length > windowThreshold;
+        const renderedList = {group: groupName, apis, list: apiList, windowed, rows: new Map()};
+        renderedLists.push(renderedList);
+
+        if (windowed) {
+            apiList.classList.add('windowed');
+            apiList.style.height = `${apis.length * rowHeight}px`;
+        } else {
+            apis.forEach((api, index) => addRow(renderedList, index));
+        }
     }
 
-    document.querySelectorAll('.checkbox').forEach(checkbox => {
-        checkbox.addEventListener('change', handleCheck);
+    updateWindows();
+}
+
+function createApiRow(api) {
+    const apiItem = document.createElement('li');
+    apiItem.classList.add('api-item');
+    apiItem.dataset.key = apiKey(api.httpMethod, api.path);
+
+    const formattedText = formatApiText(api.httpMethod, api.path, api.description);
+
+    const swaggerLink = swaggerLinks[apiKey(api.httpMethod, api.path)] || '';
+
+    apiItem.innerHTML = `
+        <div class="api-text">${formattedText}</div>
+        <span class="api-nickname"></span>
+        <a href="${swaggerHref(swaggerLink)}" target="_blank" class="swagger-link">[Swagger]</a>
+        <input type="checkbox" class="checkbox"
+        data-path="${api.path}" data-method="${api.httpMethod}">
+    `;
+    patchRow(apiItem, api);
+    return apiItem;
+}
+
+// Brings an existing row up to date with the check state of its API
+function patchRow(apiItem, api) {
+    apiItem.classList.toggle('checked', api.checked);
+    apiItem.classList.toggle('unchecked', !api.checked);
+    apiItem.querySelector('.api-nickname').textContent = formatNickname(api.nickname);
+    apiItem.querySelector('.checkbox').checked = api.checked;
+}
+
+function addRow(renderedList, index) {
+    const api = renderedList.apis[index];
+    const apiItem = createApiRow(api);
+    if (renderedList.windowed) {
+        apiItem.style.top = `${index * rowHeight}px`;
+        apiItem.title = `${api.httpMethod} ${api.path} - ${api.description}`;
+    }
+    renderedList.list.appendChild(apiItem);
+    renderedList.rows.set(index, apiItem);
+
+    const key = apiItem.dataset.key;
+    if (!rowsByKey.has(key)) rowsByKey.set(key, new Set());
+    rowsByKey.get(key).add(apiItem);
+}
+
+function removeRow(renderedList, index) {
+    const apiItem = renderedList.rows.get(index);
+    renderedList.rows.delete(index);
+    rowsByKey.get(apiItem.dataset.key)?.delete(apiItem);
+    apiItem.remove();
+}
+
+// Keeps the rows of windowed lists limited to the ones in or near the viewport
+function updateWindows() {
+    windowUpdatePending = false;
+    renderedLists.filter(renderedList => renderedList.windowed).forEach(renderedList => {
+        const top = renderedList.list.getBoundingClientRect().top;
+        const first = Math.max(0, Math.floor(-top / rowHeight) - overscanRows);
+        const last = Math.min(renderedList.apis.length, Math.ceil((window.innerHeight - top) / rowHeight) + overscanRows);
+
+        for (const index of [...renderedList.rows.keys()]) {
+            if (index < first || index >= last) removeRow(renderedList, index);
+        }
+        for (let index = first; index < last; index++) {
+            if (!renderedList.rows.has(index)) addRow(renderedList, index);
+        }
     });
 }
 
+function scheduleWindowUpdate() {
+    if (windowUpdatePending) return;
+    windowUpdatePending = true;
+    requestAnimationFrame(updateWindows);
+}
+
+window.addEventListener('scroll', scheduleWindowUpdate, {passive: true});
+window.addEventListener('resize', scheduleWindowUpdate);
+
+apiGroupsDiv.addEventListener('change', event => {
+    if (event.target.matches('.checkbox')) handleCheck(event);
+});
+
+apiGroupsDiv.addEventListener('click', event => {
+    const checkAllButton = event.target.closest('.check-all');
+    if (checkAllButton) checkAllInGroup(checkAllButton.closest('.group').dataset.group);
+});
+
+function formatNickname(nickname) {
+    return nickname ? `[${nickname}]` : '';
+}
+
 function formatApiText(httpMethod, path, description) {
     const method = `<span class="http-method">${httpMethod}</span>`;
     const apiPath = `<span class="api-path">${path}</span>`;
@@ -158,7 +426,7 @@ async function handleCheck(event) {
         if (!response.ok) throw new Error('Failed to update API status');
         showMessage('API status updated successfully', 'success');
 
-        await fetchApiGroups();
+        applyDelta({httpMethod, path, checked, nickname: checked ? nickname : ''});
     } catch (error) {
         console.error('Error updating API status:', error);
         showMessage('Error updating API status', 'error');
@@ -166,6 +434,74 @@ async function handleCheck(event) {
     }
 }
 
+async function checkAllInGroup(groupName) {
+    const nickname = getNickname();
+    // Only the APIs shown for the group, which may be filtered
+    const shownApis = renderedLists.find(renderedList => renderedList.group === groupName)?.apis || [];
+    const updates = shownApis
+        .filter(api => !api.checked)
+        .map(api => ({httpMethod: api.httpMethod, path: api.path, checked: true, nickname: nickname}));
+
+    if (updates.length === 0) {
+        showMessage('All APIs in this group are already checked', 'success');
+        return;
+    }
+
+    try {
+        const response = await fetch(`${apiBase}/check/batch`, {
+            method: 'POST',
+            headers: {'Content-Type': 'application/json'},
+            body: JSON.stringify(updates)
+        });
+
+        if (!response.ok) throw new Error('Failed to update API status');
+        const deltas = await response.json();
+        deltas.forEach(applyDelta);
+        showMessage(`${deltas.length} APIs checked`, 'success');
+    } catch (error) {
+        console.error('Error updating API status:', error);
+        showMessage('Error updating API status', 'error');
+    }
+}
+
+function applyDelta(delta) {
+    if (pendingDeltas !== null) {
+        pendingDeltas.push(delta);
+        return;
+    }
+
+    if (delta.version !== undefined) {
+        stateVersion = Math.max(stateVersion ?? 0, delta.version);
+    }
+
+    const key = apiKey(delta.httpMethod, delta.path);
+    const apis = [...(apiIndex.get(key) || []), ...(queryIndex.get(key) || [])];
+    apis.forEach(api => {
+        api.checked = delta.checked;
+        api.nickname = delta.nickname;
+    });
+
+    // Only the rows of this API are patched; rows outside the window pick up the state when created
+    if (apis.length > 0) {
+        (rowsByKey.get(key) || []).forEach(apiItem => patchRow(apiItem, apis[0]));
+    }
+}
+
+function subscribeToChanges() {
+    const events = new EventSource(`${apiBase}/events`);
+
+    events.addEventListener('open', () => {
+        // Changes may have been missed before the stream opened or while it was disconnected
+        if (pendingDeltas !== null) {
+            resyncAfterLoad = true;
+        } else {
+            stateVersion !== null ? fetchChangesSince(stateVersion) : fetchApiGroups();
+        }
+    });
+    events.addEventListener('delta', event => applyDelta(JSON.parse(event.data)));
+    events.addEventListener('reset', () => fetchApiGroups());
+}
+
 function showMessage(message, type) {
     messageDiv.textContent = message;
     messageDiv.className = type;
@@ -173,3 +509,4 @@ function showMessage(message, type) {
 }
 
 fetchApiGroups();
+subscribeToChanges();
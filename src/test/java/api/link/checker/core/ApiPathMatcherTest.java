@@ -0,0 +1,44 @@
+package api.link.checker.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiPathMatcherTest {
+
+    private final ApiInfo getUser = new ApiInfo("GET", "/users/{id}", "", "", false);
+    private final ApiInfo listUsers = new ApiInfo("GET", "/users/", "", "", false);
+    private final ApiInfo anyUser = new ApiInfo("ALL", "/users/{userId}", "", "", false);
+    private final ApiInfo postOrder = new ApiInfo("POST", "/orders/{id}/items", "", "", false);
+
+    private final ApiPathMatcher matcher = new ApiPathMatcher(Map.of(
+            "Users", List.of(getUser, listUsers, anyUser),
+            "Orders", List.of(postOrder)));
+
+    @Test
+    void variableNamesDoNotMatter() {
+        assertEquals(List.of(postOrder), matcher.match("POST", "/orders/{orderId}/items"));
+    }
+
+    @Test
+    void trailingAndRepeatedSlashesDoNotMatter() {
+        assertEquals(List.of(listUsers), matcher.match("get", "//users"));
+    }
+
+    @Test
+    void methodApisComeBeforeThoseOfAnyMethod() {
+        assertEquals(List.of(getUser, anyUser), matcher.match("GET", "/users/{id}"));
+        assertEquals(List.of(anyUser), matcher.match("DELETE", "/users/{id}"));
+    }
+
+    @Test
+    void literalsDoNotMatchVariables() {
+        assertTrue(matcher.match("GET", "/users/me").isEmpty());
+        assertTrue(matcher.match("POST", "/orders/{id}").isEmpty());
+        assertTrue(matcher.match("GET", "/unknown").isEmpty());
+    }
+}
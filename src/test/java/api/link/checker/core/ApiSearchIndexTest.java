@@ -0,0 +1,98 @@
+package api.link.checker.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApiSearchIndexTest {
+
+    private final Map<String, List<String>> groupIndex = new LinkedHashMap<>();
+    private final Map<String, ApiInfo> apiIndex = new LinkedHashMap<>();
+    private final ApiSearchIndex index = new ApiSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        add("Users", new ApiInfo("GET", "/users/{id}", "Find a user", "", false));
+        add("Users", new ApiInfo("POST", "/users", "Create a user", "kim", true));
+        add("Orders", new ApiInfo("GET", "/orders", "List orders", "lee", true));
+        add("Orders", new ApiInfo("DELETE", "/orders/{id}", "Cancel an order", "", false));
+        index.rebuild(groupIndex, apiIndex);
+    }
+
+    @Test
+    void emptyQueryMatchesEveryApiInGroupOrder() {
+        ApiSearchIndex.Page page = index.query(query(null, null, null, null, null), 0, 10);
+
+        assertEquals(4, page.total());
+        assertEquals(List.of("GET_/users/{id}", "POST_/users", "GET_/orders", "DELETE_/orders/{id}"), page.keys());
+        assertEquals(List.of("Users", "Users", "Orders", "Orders"), page.groups());
+        assertEquals(-1, page.nextOrdinal());
+    }
+
+    @Test
+    void filtersAreCombined() {
+        ApiSearchIndex.Page page = index.query(query(null, "get", true, null, null), 0, 10);
+
+        assertEquals(List.of("GET_/orders"), page.keys());
+    }
+
+    @Test
+    void textMatchesPathAndDescriptionCaseInsensitively() {
+        assertEquals(List.of("POST_/users"), index.query(query(null, null, null, null, "CREATE"), 0, 10).keys());
+        assertEquals(List.of("GET_/orders", "DELETE_/orders/{id}"), index.query(query(null, null, null, null, "order"), 0, 10).keys());
+        assertEquals(List.of("GET_/users/{id}", "DELETE_/orders/{id}"), index.query(query(null, null, null, null, "{"), 0, 10).keys());
+        assertEquals(0, index.query(query(null, null, null, null, "missing"), 0, 10).total());
+    }
+
+    @Test
+    void groupFilterKeepsCountsOfOtherGroups() {
+        ApiSearchIndex.Page page = index.query(query("Orders", null, null, null, "/"), 0, 10);
+
+        assertEquals(2, page.total());
+        assertEquals(List.of("GET_/orders", "DELETE_/orders/{id}"), page.keys());
+        assertEquals(Map.of("Users", 2, "Orders", 2), page.groupCounts());
+    }
+
+    @Test
+    void pagesContinueFromTheNextOrdinal() {
+        ApiSearchIndex.Page first = index.query(query(null, null, null, null, null), 0, 3);
+        ApiSearchIndex.Page second = index.query(query(null, null, null, null, null), first.nextOrdinal(), 3);
+
+        assertEquals(3, first.keys().size());
+        assertEquals(List.of("DELETE_/orders/{id}"), second.keys());
+        assertEquals(-1, second.nextOrdinal());
+    }
+
+    @Test
+    void updateMovesAnApiBetweenNicknames() {
+        ApiInfo apiInfo = apiIndex.get("POST_/users");
+        apiInfo.setNickname("park");
+        index.update("POST_/users", "kim", apiInfo);
+
+        assertEquals(0, index.query(query(null, null, null, "kim", null), 0, 10).total());
+        assertEquals(List.of("POST_/users"), index.query(query(null, null, null, "PARK", null), 0, 10).keys());
+
+        apiInfo.setChecked(false);
+        apiInfo.setNickname("");
+        index.update("POST_/users", "park", apiInfo);
+
+        assertEquals(0, index.query(query(null, null, null, "park", null), 0, 10).total());
+        assertEquals(List.of("GET_/orders"), index.query(query(null, null, true, null, null), 0, 10).keys());
+    }
+
+    private void add(String groupName, ApiInfo apiInfo) {
+        String key = ApiKeys.of(apiInfo);
+        apiIndex.put(key, apiInfo);
+        groupIndex.computeIfAbsent(groupName, name -> new ArrayList<>()).add(key);
+    }
+
+    private static ApiQuery query(String group, String httpMethod, Boolean checked, String nickname, String text) {
+        return new ApiQuery(group, httpMethod, checked, nickname, text, null, 10);
+    }
+}
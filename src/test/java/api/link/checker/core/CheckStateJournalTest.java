@@ -0,0 +1,141 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckStateJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<CheckStateJournal> journals = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(CheckStateJournal::close);
+    }
+
+    @Test
+    void replaysAppendedRecordsInWriteOrder() throws IOException {
+        CheckStateJournal journal = open();
+        journal.append(List.of(record("/a", "kim", true, 1), record("/b", "kim", true, 2)));
+        journal.append(List.of(record("/a", "", false, 3)));
+        assertEquals(3, journal.pendingRecords());
+        journal.close();
+
+        CheckStateJournal reopened = open();
+        List<CheckRecord> replayed = new ArrayList<>();
+
+        assertEquals(3, reopened.replay(replayed::add));
+        assertEquals(List.of(record("/a", "kim", true, 1), record("/b", "kim", true, 2), record("/a", "", false, 3)), replayed);
+        assertEquals(3, reopened.pendingRecords());
+    }
+
+    @Test
+    void skipsTornLastLine() throws IOException {
+        CheckStateJournal journal = open();
+        journal.append(List.of(record("/a", "kim", true, 1)));
+        journal.close();
+        Files.writeString(directory.resolve("api-status.json.journal"), "{\"httpMethod\":\"GET\",\"pa",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<CheckRecord> replayed = new ArrayList<>();
+
+        assertEquals(1, open().replay(replayed::add));
+        assertEquals(List.of(record("/a", "kim", true, 1)), replayed);
+    }
+
+    @Test
+    void compactionReplacesTheJournalWithASnapshot() throws IOException {
+        CheckStateJournal journal = open();
+        journal.append(List.of(record("/a", "kim", true, 1)));
+
+        long size = journal.compact(() -> snapshot(new ApiInfo("GET", "/a", "A", "kim", true)));
+
+        assertEquals(Files.size(directory.resolve("api-status.json")), size);
+        assertEquals(0, journal.pendingRecords());
+        journal.close();
+
+        CheckStateJournal reopened = open();
+        List<ApiInfo> apis = reopened.readSnapshot().get("Group");
+        assertEquals(1, apis.size());
+        assertEquals("/a", apis.get(0).getPath());
+        assertEquals("kim", apis.get(0).getNickname());
+        assertTrue(apis.get(0).isChecked());
+        assertEquals(0, reopened.replay(record -> {
+        }));
+    }
+
+    @Test
+    void recordsAppendedDuringCompactionStayPending() throws IOException {
+        CheckStateJournal journal = open();
+        journal.append(List.of(record("/a", "kim", true, 1)));
+
+        journal.compact(() -> {
+            try {
+                journal.append(List.of(record("/b", "lee", true, 2)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return snapshot(new ApiInfo("GET", "/a", "A", "kim", true));
+        });
+
+        assertEquals(1, journal.pendingRecords());
+        journal.close();
+
+        List<CheckRecord> replayed = new ArrayList<>();
+        open().replay(replayed::add);
+        assertEquals(List.of(record("/b", "lee", true, 2)), replayed);
+    }
+
+    @Test
+    void failedCompactionKeepsTheRecords() throws IOException {
+        CheckStateJournal journal = open();
+        journal.append(List.of(record("/a", "kim", true, 1)));
+
+        assertThrows(IllegalStateException.class, () -> journal.compact(() -> {
+            throw new IllegalStateException("capture failed");
+        }));
+        journal.append(List.of(record("/b", "lee", true, 2)));
+
+        assertEquals(2, journal.pendingRecords());
+        assertFalse(Files.exists(directory.resolve("api-status.json")));
+        journal.close();
+
+        // The rotated records are replayed in front of the newer ones
+        List<CheckRecord> replayed = new ArrayList<>();
+        open().replay(replayed::add);
+        assertEquals(List.of(record("/a", "kim", true, 1), record("/b", "lee", true, 2)), replayed);
+    }
+
+    private CheckStateJournal open() {
+        CheckStateJournal journal = new CheckStateJournal(objectMapper, directory.resolve("api-status.json").toString());
+        journals.add(journal);
+        return journal;
+    }
+
+    private ApiSnapshot snapshot(ApiInfo... apis) {
+        return new ApiSnapshot(1, Map.of("Group", List.of(apis)), objectMapper);
+    }
+
+    private static CheckRecord record(String path, String nickname, boolean checked, long timestamp) {
+        return new CheckRecord("GET", path, nickname, checked, timestamp);
+    }
+}
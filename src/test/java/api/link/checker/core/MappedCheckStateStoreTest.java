@@ -0,0 +1,83 @@
+package api.link.checker.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MappedCheckStateStoreTest {
+
+    private final List<MappedCheckStateStore> stores = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(MappedCheckStateStore::close);
+    }
+
+    @Test
+    void replaysTheLatestStateOfEveryKey() throws IOException {
+        MappedCheckStateStore store = open();
+        store.append(List.of(record("/a", "kim", true, 1), record("/b", "lee", true, 2)));
+        store.append(List.of(record("/a", "", false, 3)));
+        store.close();
+
+        List<CheckRecord> replayed = new ArrayList<>();
+
+        assertEquals(2, open().replay(replayed::add));
+        assertEquals(List.of(record("/a", "", false, 3), record("/b", "lee", true, 2)), replayed);
+    }
+
+    @Test
+    void growsBeyondTheInitialSlots() throws IOException {
+        MappedCheckStateStore store = open();
+        List<CheckRecord> records = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            records.add(record("/resource" + i, "kim", i % 2 == 0, i));
+        }
+        store.append(records);
+        store.close();
+
+        Map<String, CheckRecord> replayed = new HashMap<>();
+        assertEquals(3000, open().replay(record -> replayed.put(record.path(), record)));
+        assertEquals(record("/resource2999", "kim", false, 2999), replayed.get("/resource2999"));
+    }
+
+    @Test
+    void compactionOnlyForcesTheFile() throws IOException {
+        MappedCheckStateStore store = open();
+        store.append(List.of(record("/a", "kim", true, 1)));
+        int[] captures = new int[1];
+
+        long size = store.compact(() -> {
+            captures[0]++;
+            return null;
+        });
+
+        assertEquals(1, captures[0]);
+        assertEquals(Files.size(directory.resolve("api-status.json.mapped")), size);
+        assertEquals(0, store.pendingRecords());
+        assertEquals(Map.of(), store.readSnapshot());
+    }
+
+    private MappedCheckStateStore open() {
+        MappedCheckStateStore store = new MappedCheckStateStore(directory.resolve("api-status.json").toString(), false);
+        stores.add(store);
+        return store;
+    }
+
+    private static CheckRecord record(String path, String nickname, boolean checked, long timestamp) {
+        return new CheckRecord("GET", path, nickname, checked, timestamp);
+    }
+}
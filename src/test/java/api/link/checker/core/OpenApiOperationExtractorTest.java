@@ -0,0 +1,62 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenApiOperationExtractorTest {
+
+    private final OpenApiOperationExtractor extractor = new OpenApiOperationExtractor(new JsonFactory());
+
+    @Test
+    void extractsOperationsInDocumentOrder() throws IOException {
+        List<SwaggerOperation> operations = extract("""
+                {
+                  "openapi": "3.0.1",
+                  "info": {"title": "Demo", "paths": {"/ignored": {"get": {}}}},
+                  "paths": {
+                    "/users/{id}": {
+                      "parameters": [{"name": "id", "in": "path"}],
+                      "summary": "Users",
+                      "get": {"tags": ["User", "Admin"], "operationId": "getUser", "responses": {"200": {"description": "OK"}}},
+                      "delete": {"operationId": "deleteUser", "tags": [{"name": "nested"}, "User"]}
+                    },
+                    "/health": {"head": {"responses": {}}}
+                  },
+                  "components": {"schemas": {"User": {"type": "object", "properties": {"operationId": {"type": "string"}}}}}
+                }
+                """);
+
+        assertEquals(List.of(
+                new SwaggerOperation("GET", "/users/{id}", "User", "getUser"),
+                new SwaggerOperation("DELETE", "/users/{id}", "User", "deleteUser"),
+                new SwaggerOperation("HEAD", "/health", "NoTag", null)), operations);
+    }
+
+    @Test
+    void documentWithoutPathsHasNoOperations() throws IOException {
+        assertTrue(extract("{\"openapi\": \"3.0.1\", \"paths\": null}").isEmpty());
+    }
+
+    @Test
+    void rejectsDocumentsThatAreNoObject() {
+        assertThrows(IOException.class, () -> extract("[]"));
+    }
+
+    @Test
+    void rejectsTruncatedDocuments() {
+        assertThrows(IOException.class, () -> extract("{\"paths\": {\"/a\": {\"get\": {\"tags\": [\"A\""));
+    }
+
+    private List<SwaggerOperation> extract(String json) throws IOException {
+        return extractor.extract(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,134 @@
+package api.link.checker.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Two journals on the same files stand in for two instances. The journals are used from one
+ * thread only, because file locks are held per process.
+ */
+class SharedCheckStateJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    private SharedCheckStateJournal first;
+    private SharedCheckStateJournal second;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        first = open();
+        second = open();
+        first.readSnapshot();
+        second.readSnapshot();
+    }
+
+    @AfterEach
+    void tearDown() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void pollReturnsOnlyRecordsOfOtherInstances() throws IOException {
+        first.append(List.of(record("/a", "kim", true, 1)));
+        assertEquals(List.of(record("/a", "kim", true, 1)), poll(second));
+
+        second.append(List.of(record("/b", "lee", true, 2)));
+        first.append(List.of(record("/c", "kim", true, 3)));
+
+        assertEquals(List.of(record("/b", "lee", true, 2)), poll(first));
+        assertEquals(List.of(record("/c", "kim", true, 3)), poll(second));
+        assertEquals(List.of(), poll(second));
+
+        // Only own appends wait for compaction
+        assertEquals(2, first.pendingRecords());
+        assertEquals(1, second.pendingRecords());
+    }
+
+    @Test
+    void skipsRecordsSupersededByALaterOwnWrite() throws IOException {
+        first.append(List.of(record("/b", "kim", true, 1)));
+        poll(second);
+
+        first.append(List.of(record("/a", "kim", true, 2)));
+        second.append(List.of(record("/a", "", false, 3)));
+
+        // The record of the first instance came earlier, so the second instance keeps its own state
+        assertEquals(List.of(), poll(second));
+        assertEquals(List.of(record("/a", "", false, 3)), poll(first));
+    }
+
+    @Test
+    void instanceReadsTheSnapshotAfterAnotherInstanceCompacted() throws IOException {
+        first.append(List.of(record("/a", "kim", true, 1)));
+        poll(second);
+        second.append(List.of(record("/b", "lee", true, 2)));
+
+        long size = first.compact(() -> {
+            // The capture polls, so the snapshot contains the records of the second instance
+            assertEquals(List.of(record("/b", "lee", true, 2)), poll(first));
+            return snapshot(new ApiInfo("GET", "/a", "", "kim", true), new ApiInfo("GET", "/b", "", "lee", true));
+        });
+
+        assertEquals(Files.size(directory.resolve("api-status.json")), size);
+        assertEquals(0, first.pendingRecords());
+
+        first.append(List.of(record("/c", "kim", true, 3)));
+
+        // The new generation hands the compacted states over as records without timestamp, then the new records
+        assertEquals(List.of(record("/a", "kim", true, 0), record("/b", "lee", true, 0), record("/c", "kim", true, 3)),
+                poll(second));
+        assertEquals(0, second.pendingRecords());
+        assertEquals(List.of(), poll(first));
+    }
+
+    @Test
+    void failedCaptureReleasesTheLock() throws IOException {
+        first.append(List.of(record("/a", "kim", true, 1)));
+        poll(second);
+
+        assertThrows(IllegalStateException.class, () -> first.compact(() -> {
+            throw new IllegalStateException("capture failed");
+        }));
+
+        // Both instances can still append and the records stay pending
+        second.append(List.of(record("/b", "lee", true, 2)));
+        first.append(List.of(record("/c", "kim", true, 3)));
+        assertEquals(2, first.pendingRecords());
+        assertEquals(List.of(record("/b", "lee", true, 2)), poll(first));
+    }
+
+    private SharedCheckStateJournal open() {
+        return new SharedCheckStateJournal(objectMapper, directory.resolve("api-status.json").toString(), 1000);
+    }
+
+    private ApiSnapshot snapshot(ApiInfo... apis) {
+        return new ApiSnapshot(1, Map.of("Group", List.of(apis)), objectMapper);
+    }
+
+    private static List<CheckRecord> poll(SharedCheckStateJournal journal) {
+        List<CheckRecord> records = new ArrayList<>();
+        journal.poll(records::add);
+        return records;
+    }
+
+    private static CheckRecord record(String path, String nickname, boolean checked, long timestamp) {
+        return new CheckRecord("GET", path, nickname, checked, timestamp);
+    }
+}